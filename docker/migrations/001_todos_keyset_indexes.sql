@@ -0,0 +1,15 @@
+-- 001_todos_keyset_indexes.sql
+-- (sort column, id) indexes for keyset paging of the todo list on an existing volume.
+-- Fresh volumes get the same indexes from docker/initdb/01_schema.sql.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_created_at_id
+  ON todos (created_at, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_title_id
+  ON todos (title, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_due_date_id
+  ON todos (due_date, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_status_id
+  ON todos (status, id);
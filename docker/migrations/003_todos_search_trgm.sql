@@ -0,0 +1,9 @@
+-- 003_todos_search_trgm.sql
+-- pg_trgm and the trigram index behind keyword search and its word_similarity()
+-- relevance ordering on an existing volume.
+-- Fresh volumes get the same objects from docker/initdb/01_schema.sql.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_search_trgm
+  ON todos USING gin ((title || ' ' || COALESCE(description, '')) gin_trgm_ops);
@@ -0,0 +1,23 @@
+-- 004_todo_visibility.sql
+-- Precomputed (user, todo) visibility used by every list, search, count and
+-- detail query, backfilled from todo owners and shared group memberships.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS todo_visibility (
+  user_id BIGINT NOT NULL,
+  todo_id BIGINT NOT NULL,
+  PRIMARY KEY (user_id, todo_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_visibility_todo_id
+  ON todo_visibility (todo_id);
+
+INSERT INTO todo_visibility (user_id, todo_id)
+SELECT t.user_id, t.id
+FROM todos t
+WHERE t.user_id IS NOT NULL
+UNION
+SELECT ug.user_id, tg.todo_id
+FROM todo_groups tg
+JOIN user_groups ug ON ug.group_id = tg.group_id
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,30 @@
+-- 005_group_closure.sql
+-- Ancestor/descendant closure of the group tree used by the group filter,
+-- backfilled from groups.parent_id.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS group_closure (
+  ancestor_id BIGINT NOT NULL,
+  descendant_id BIGINT NOT NULL,
+  depth INT NOT NULL,
+  PRIMARY KEY (ancestor_id, descendant_id),
+  CONSTRAINT fk_group_closure_ancestor FOREIGN KEY (ancestor_id) REFERENCES groups(id),
+  CONSTRAINT fk_group_closure_descendant FOREIGN KEY (descendant_id) REFERENCES groups(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_group_closure_descendant
+  ON group_closure (descendant_id);
+
+INSERT INTO group_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE closure (ancestor_id, descendant_id, depth) AS (
+  SELECT g.id, g.id, 0
+  FROM groups g
+  UNION ALL
+  SELECT p.parent_id, c.descendant_id, c.depth + 1
+  FROM closure c
+  JOIN groups p ON p.id = c.ancestor_id
+  WHERE p.parent_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth
+FROM closure
+ON CONFLICT DO NOTHING;
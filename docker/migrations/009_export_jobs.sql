@@ -0,0 +1,32 @@
+-- 009_export_jobs.sql
+-- Job table for asynchronous CSV exports (ExportJobService).
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS export_jobs (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  gzip BOOLEAN NOT NULL,
+  keyword VARCHAR(255),
+  sort VARCHAR(20),
+  direction VARCHAR(10),
+  category_id BIGINT,
+  group_id BIGINT,
+  status_filter VARCHAR(20),
+  locale VARCHAR(35),
+  filename VARCHAR(255),
+  stored_filename VARCHAR(255),
+  row_count BIGINT,
+  size BIGINT,
+  error_message VARCHAR(1000),
+  created_at TIMESTAMP NOT NULL,
+  started_at TIMESTAMP,
+  completed_at TIMESTAMP,
+  expires_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_user_status
+  ON export_jobs (user_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_expires_at
+  ON export_jobs (expires_at);
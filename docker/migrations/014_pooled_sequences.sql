@@ -0,0 +1,24 @@
+-- 014_pooled_sequences.sql
+-- Moves todos / todo_attachments from BIGSERIAL to the pooled
+-- sequences used by Hibernate (allocationSize = 50) on an existing volume.
+-- Fresh volumes get the same layout from docker/initdb/01_schema.sql.
+
+BEGIN;
+
+LOCK TABLE todos, todo_attachments IN EXCLUSIVE MODE;
+
+CREATE SEQUENCE IF NOT EXISTS todo_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS todo_attachment_seq START WITH 1 INCREMENT BY 50;
+
+-- The pooled optimizer hands out (value - 49 .. value), so the next value
+-- must be at least MAX(id) + 50 to stay clear of existing rows.
+SELECT setval('todo_seq', COALESCE((SELECT MAX(id) FROM todos), 0) + 50, false);
+SELECT setval('todo_attachment_seq', COALESCE((SELECT MAX(id) FROM todo_attachments), 0) + 50, false);
+
+ALTER TABLE todos ALTER COLUMN id SET DEFAULT nextval('todo_seq');
+ALTER TABLE todo_attachments ALTER COLUMN id SET DEFAULT nextval('todo_attachment_seq');
+
+DROP SEQUENCE IF EXISTS todos_id_seq;
+DROP SEQUENCE IF EXISTS todo_attachments_id_seq;
+
+COMMIT;
@@ -0,0 +1,6 @@
+-- 016_todos_updated_at_index.sql
+-- Keyset index for GET /api/todos/changes on an existing volume.
+-- Fresh volumes get the same index from docker/initdb/01_schema.sql.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_updated_at_id
+  ON todos (updated_at, id);
@@ -0,0 +1,21 @@
+-- 021_mail_outbox.sql
+-- Transactional mail outbox drained by MailOutboxDispatcher.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS mail_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  kind VARCHAR(50) NOT NULL,
+  recipient VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  body TEXT NOT NULL,
+  html BOOLEAN NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  attempts INT NOT NULL,
+  next_attempt_at TIMESTAMP NOT NULL,
+  last_error VARCHAR(1000),
+  created_at TIMESTAMP NOT NULL,
+  sent_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_status_next
+  ON mail_outbox (status, next_attempt_at, id);
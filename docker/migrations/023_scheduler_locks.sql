@@ -0,0 +1,11 @@
+-- 023_scheduler_locks.sql
+-- Lease table for app.scheduler.lock.mode=table. PostgreSQL normally uses
+-- advisory locks and never touches it.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+  name VARCHAR(100) PRIMARY KEY,
+  locked_by VARCHAR(255) NOT NULL,
+  locked_at TIMESTAMP NOT NULL,
+  locked_until TIMESTAMP NOT NULL
+);
@@ -0,0 +1,30 @@
+-- 024_reminder_schedule.sql
+-- Replaces the daily reminder scan with a precomputed reminder_schedule table,
+-- then backfills it from open todos. Volumes that applied the withdrawn
+-- 022_reminder_runs.sql also lose its reminder_runs table and index here.
+-- Fire times use the defaults app.reminder.lead-days=3, fire-time=09:00 and
+-- zone=Asia/Tokyo, converted to the session time zone that the app also uses.
+-- Fire times already in the past are clamped to now and go out on the next dispatch.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS reminder_schedule (
+  todo_id BIGINT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  fire_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_reminder_schedule_fire_at
+  ON reminder_schedule (fire_at, user_id);
+
+INSERT INTO reminder_schedule (todo_id, user_id, fire_at)
+SELECT t.id, t.user_id,
+  GREATEST(((t.due_date - 3) + TIME '09:00') AT TIME ZONE 'Asia/Tokyo' AT TIME ZONE current_setting('TimeZone'),
+    LOCALTIMESTAMP)
+FROM todos t
+WHERE t.deleted_at IS NULL
+  AND t.due_date >= CURRENT_DATE
+  AND t.status <> 'COMPLETED'
+ON CONFLICT (todo_id) DO NOTHING;
+
+DROP TABLE IF EXISTS reminder_runs;
+DROP INDEX CONCURRENTLY IF EXISTS idx_todos_user_due_date;
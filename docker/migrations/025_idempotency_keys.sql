@@ -0,0 +1,17 @@
+-- 025_idempotency_keys.sql
+-- Shared Idempotency-Key records for app.idempotency.shared=true, so a retried
+-- POST /api/todos or /todos/complete is answered from the first node's result.
+-- Fresh volumes get the same table from docker/initdb/01_schema.sql.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  idempotency_key VARCHAR(200) PRIMARY KEY,
+  fingerprint VARCHAR(100) NOT NULL,
+  status_code INT,
+  response_body TEXT,
+  etag VARCHAR(100),
+  resource_id BIGINT,
+  expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at
+  ON idempotency_keys (expires_at);
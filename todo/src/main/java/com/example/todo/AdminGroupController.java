@@ -25,10 +25,15 @@ public class AdminGroupController {
 
   private final GroupRepository groupRepository;
   private final MessageSource messageSource;
+  private final GroupClosureService groupClosureService;
+  private final ReferenceDataCache referenceDataCache;
 
-  public AdminGroupController(GroupRepository groupRepository, MessageSource messageSource) {
+  public AdminGroupController(GroupRepository groupRepository, MessageSource messageSource,
+      GroupClosureService groupClosureService, ReferenceDataCache referenceDataCache) {
     this.groupRepository = groupRepository;
     this.messageSource = messageSource;
+    this.groupClosureService = groupClosureService;
+    this.referenceDataCache = referenceDataCache;
   }
 
   @GetMapping
@@ -62,7 +67,9 @@ public class AdminGroupController {
         .parent(parent)
         .color(form.getColor())
         .build();
-    groupRepository.save(group);
+    Group saved = groupRepository.save(group);
+    groupClosureService.addGroup(saved.getId(), saved.getParentId());
+    referenceDataCache.invalidate();
     redirectAttributes.addFlashAttribute("successMessage", msg("msg.group_created"));
     return "redirect:/admin/groups";
   }
@@ -109,11 +116,16 @@ public class AdminGroupController {
       model.addAttribute("groupLabels", buildGroupLabels());
       return "admin/group_edit";
     }
+    Long previousParentId = group.getParentId();
     group.setName(form.getName());
     group.setType(form.getType());
     group.setParent(parent);
     group.setColor(form.getColor());
     groupRepository.save(group);
+    if (!java.util.Objects.equals(previousParentId, group.getParentId())) {
+      groupClosureService.moveGroup(id, group.getParentId());
+    }
+    referenceDataCache.invalidate();
     redirectAttributes.addFlashAttribute("successMessage", msg("msg.group_updated"));
     return "redirect:/admin/groups";
   }
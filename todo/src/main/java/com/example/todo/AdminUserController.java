@@ -32,13 +32,16 @@ public class AdminUserController {
   private final PasswordEncoder passwordEncoder;
   private final GroupRepository groupRepository;
   private final MessageSource messageSource;
+  private final AppUserService appUserService;
 
   public AdminUserController(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder,
-      GroupRepository groupRepository, MessageSource messageSource) {
+      GroupRepository groupRepository, MessageSource messageSource,
+      AppUserService appUserService) {
     this.appUserRepository = appUserRepository;
     this.passwordEncoder = passwordEncoder;
     this.groupRepository = groupRepository;
     this.messageSource = messageSource;
+    this.appUserService = appUserService;
   }
 
   @GetMapping
@@ -147,7 +150,7 @@ public class AdminUserController {
       List<Group> groups = groupRepository.findAllById(form.getGroupIds());
       user.setDefaultGroups(new java.util.HashSet<>(groups));
     }
-    appUserRepository.save(user);
+    appUserService.save(user);
       redirectAttributes.addFlashAttribute("successMessage", "Updated.");
     return "redirect:/admin/users";
   }
@@ -210,7 +213,7 @@ public class AdminUserController {
     roles.remove("ROLE_USER");
     roles.add(role);
     user.setRoles(String.join(",", roles));
-    appUserRepository.save(user);
+    appUserService.save(user);
       redirectAttributes.addFlashAttribute("successMessage", "Updated.");
     return "redirect:/admin/users";
   }
@@ -235,7 +238,7 @@ public class AdminUserController {
         return "redirect:/admin/users";
       }
     }
-    appUserRepository.delete(user);
+    appUserService.delete(user);
       redirectAttributes.addFlashAttribute("successMessage", "Updated.");
     return "redirect:/admin/users";
   }
@@ -1,6 +1,7 @@
 package com.example.todo;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -20,6 +21,19 @@ public class ApiExceptionHandler {
         .body(ApiResponse.error(ex.getMessage()));
   }
 
+  @ExceptionHandler(DuplicateSubmissionException.class)
+  public ResponseEntity<ApiResponse<Void>> handleDuplicateSubmission(DuplicateSubmissionException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(ApiResponse.error("直前に同じ内容が送信されました。数秒待ってから再度お試しください。"));
+  }
+
+  @ExceptionHandler(TooManySubscriptionsException.class)
+  public ResponseEntity<ApiResponse<Void>> handleTooManySubscriptions(TooManySubscriptionsException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(ApiResponse.error("同時接続数が上限に達しています。"));
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ApiResponse<Void>> handleGeneric(Exception ex) {
     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
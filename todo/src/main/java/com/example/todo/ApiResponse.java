@@ -1,5 +1,6 @@
 package com.example.todo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -9,12 +10,25 @@ public class ApiResponse<T> {
   private boolean success;
   private String message;
   private T data;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private PageMeta meta;
 
   public static <T> ApiResponse<T> ok(String message, T data) {
-    return new ApiResponse<>(true, message, data);
+    return new ApiResponse<>(true, message, data, null);
+  }
+
+  public static <T> ApiResponse<T> ok(String message, T data, PageMeta meta) {
+    return new ApiResponse<>(true, message, data, meta);
   }
 
   public static <T> ApiResponse<T> error(String message) {
-    return new ApiResponse<>(false, message, null);
+    return new ApiResponse<>(false, message, null, null);
+  }
+
+  public static <T> ApiResponse<T> error(String message, T data) {
+    return new ApiResponse<>(false, message, data, null);
+  }
+
+  public record PageMeta(int count, boolean hasNext, String nextCursor, Long total) {
   }
 }
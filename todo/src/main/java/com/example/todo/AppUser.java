@@ -15,6 +15,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "users")
@@ -44,6 +45,7 @@ public class AppUser {
   private Boolean enabled = true;
 
   @ManyToMany
+  @BatchSize(size = 50)
   @JoinTable(
       name = "user_groups",
       joinColumns = @JoinColumn(name = "user_id"),
@@ -1,10 +1,17 @@
 package com.example.todo;
 
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
   Optional<AppUser> findByUsername(String username);
 
+  @EntityGraph(attributePaths = "defaultGroups")
+  Optional<AppUser> findWithDefaultGroupsByUsername(String username);
+
+  @EntityGraph(attributePaths = "defaultGroups")
+  Optional<AppUser> findWithDefaultGroupsById(Long id);
+
   long countByRolesContaining(String role);
 }
@@ -0,0 +1,34 @@
+package com.example.todo;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class AppUserService {
+
+  private final AppUserRepository appUserRepository;
+  private final TodoVisibilityService todoVisibilityService;
+  private final UserContextService userContextService;
+
+  public AppUserService(AppUserRepository appUserRepository, TodoVisibilityService todoVisibilityService,
+      UserContextService userContextService) {
+    this.appUserRepository = appUserRepository;
+    this.todoVisibilityService = todoVisibilityService;
+    this.userContextService = userContextService;
+  }
+
+  @Transactional
+  public AppUser save(AppUser user) {
+    AppUser saved = appUserRepository.saveAndFlush(user);
+    todoVisibilityService.refreshUser(saved.getId());
+    userContextService.invalidate(saved.getId());
+    return saved;
+  }
+
+  @Transactional
+  public void delete(AppUser user) {
+    todoVisibilityService.removeUser(user.getId());
+    appUserRepository.delete(user);
+    userContextService.invalidate(user.getId());
+  }
+}
@@ -1,13 +1,10 @@
 package com.example.todo;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Arrays;
+import java.util.Map;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -16,58 +13,59 @@ import org.springframework.stereotype.Component;
 @Component
 public class AuditAspect {
 
-  private static final Logger log = LoggerFactory.getLogger(AuditAspect.class);
   private final AuditLogService auditLogService;
-  private final ObjectMapper objectMapper;
+  private final AuditSnapshotter snapshotter;
 
-  public AuditAspect(AuditLogService auditLogService, ObjectMapper objectMapper) {
+  public AuditAspect(AuditLogService auditLogService, AuditSnapshotter snapshotter) {
     this.auditLogService = auditLogService;
-    this.objectMapper = objectMapper;
+    this.snapshotter = snapshotter;
   }
 
   @Around("@annotation(auditable)")
   public Object around(ProceedingJoinPoint joinPoint, Auditable auditable) throws Throwable {
-    String beforeValue = serialize(joinPoint.getArgs());
     String username = resolveUsername();
+    String targetType = blankToNull(auditable.targetType());
     String targetId = resolveTargetId(joinPoint.getArgs());
+    Map<String, Object> before = auditable.diff() ? snapshotter.load(targetType, targetId) : null;
 
     try {
       Object result = joinPoint.proceed();
-      String afterValue = serialize(result);
+      Map<String, Object> after = null;
+      if (snapshotter.isEntity(result)) {
+        after = snapshotter.snapshot(result);
+        if (!auditable.diff()) {
+          targetId = String.valueOf(snapshotter.idOf(result));
+        }
+      } else if (before != null) {
+        after = snapshotter.load(targetType, targetId);
+      }
+      if (before != null && after != null) {
+        Map<String, Object> changedBefore = AuditSnapshotter.changed(before, after);
+        after = AuditSnapshotter.changed(after, before);
+        before = changedBefore;
+      }
       auditLogService.recordAudit(AuditLog.builder()
           .action(auditable.action())
           .username(username)
-          .targetType(blankToNull(auditable.targetType()))
+          .targetType(targetType)
           .targetId(targetId)
-          .beforeValue(beforeValue)
-          .afterValue(afterValue)
+          .beforeState(before)
+          .afterState(after)
           .build());
       return result;
     } catch (Throwable ex) {
       auditLogService.recordAudit(AuditLog.builder()
           .action(auditable.action())
           .username(username)
-          .targetType(blankToNull(auditable.targetType()))
+          .targetType(targetType)
           .targetId(targetId)
-          .beforeValue(beforeValue)
+          .beforeState(before)
           .afterValue("EXCEPTION: " + ex.getClass().getSimpleName() + " - " + ex.getMessage())
           .build());
       throw ex;
     }
   }
 
-  private String serialize(Object value) {
-    if (value == null) {
-      return null;
-    }
-    try {
-      return objectMapper.writeValueAsString(value);
-    } catch (JsonProcessingException ex) {
-      log.warn("audit serialize failed: {}", ex.getMessage());
-      return String.valueOf(value);
-    }
-  }
-
   private String resolveUsername() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication == null || !authentication.isAuthenticated()) {
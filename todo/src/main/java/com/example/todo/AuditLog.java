@@ -6,7 +6,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.time.LocalDateTime;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -47,4 +49,10 @@ public class AuditLog {
 
   @Column(nullable = false)
   private LocalDateTime createdAt;
+
+  @Transient
+  private Map<String, Object> beforeState;
+
+  @Transient
+  private Map<String, Object> afterState;
 }
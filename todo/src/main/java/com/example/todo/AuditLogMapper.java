@@ -8,7 +8,7 @@ import org.apache.ibatis.annotations.Param;
 @Mapper
 public interface AuditLogMapper {
 
-  int insert(AuditLog log);
+  int insertAll(@Param("logs") List<AuditLog> logs);
 
   List<AuditLog> search(@Param("action") String action,
       @Param("username") String username,
@@ -1,25 +1,23 @@
 package com.example.todo;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuditLogService {
 
   private static final Logger log = LoggerFactory.getLogger(AuditLogService.class);
-  private final AuditLogMapper auditLogMapper;
+  private final AuditLogWriter auditLogWriter;
 
-  public AuditLogService(AuditLogMapper auditLogMapper) {
-    this.auditLogMapper = auditLogMapper;
+  public AuditLogService(AuditLogWriter auditLogWriter) {
+    this.auditLogWriter = auditLogWriter;
   }
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void record(String action, String detail) {
     AuditLog logEntry = AuditLog.builder()
         .action(action)
@@ -27,19 +25,36 @@ public class AuditLogService {
         .username(resolveUsername())
         .createdAt(LocalDateTime.now())
         .build();
-    auditLogMapper.insert(logEntry);
+    auditLogWriter.enqueue(logEntry);
     log.info("AUDIT action={} detail={}", action, detail);
   }
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void recordAudit(AuditLog logEntry) {
     if (logEntry.getCreatedAt() == null) {
       logEntry.setCreatedAt(LocalDateTime.now());
     }
-    auditLogMapper.insert(logEntry);
+    auditLogWriter.enqueue(logEntry);
     log.info("AUDIT action={} username={}", logEntry.getAction(), logEntry.getUsername());
   }
 
+  public void recordAll(List<AuditLog> logEntries) {
+    if (logEntries == null || logEntries.isEmpty()) {
+      return;
+    }
+    String username = resolveUsername();
+    LocalDateTime now = LocalDateTime.now();
+    for (AuditLog logEntry : logEntries) {
+      if (logEntry.getUsername() == null) {
+        logEntry.setUsername(username);
+      }
+      if (logEntry.getCreatedAt() == null) {
+        logEntry.setCreatedAt(now);
+      }
+    }
+    auditLogWriter.enqueueAll(logEntries);
+    log.info("AUDIT action={} count={} username={}", logEntries.get(0).getAction(), logEntries.size(), username);
+  }
+
   private String resolveUsername() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication == null || !authentication.isAuthenticated()) {
@@ -0,0 +1,163 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class AuditLogWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+  private final AuditLogMapper auditLogMapper;
+  private final AuditPayloadSerializer payloadSerializer;
+  private final TransactionTemplate transactionTemplate;
+  private final NotificationService notificationService;
+  private final int batchSize;
+  private final AuditOverflowPolicy overflowPolicy;
+  private final BlockingQueue<AuditLog> queue;
+  private final Object writeLock = new Object();
+  private final AtomicBoolean flushPending = new AtomicBoolean();
+  private final Counter written;
+  private final Counter dropped;
+  private final ThreadPoolTaskExecutor executor;
+  private volatile boolean running = true;
+
+  public AuditLogWriter(AuditLogMapper auditLogMapper, AuditPayloadSerializer payloadSerializer,
+      PlatformTransactionManager transactionManager, NotificationService notificationService,
+      MeterRegistry meterRegistry,
+      @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+      @Value("${app.audit.batch-size:100}") int batchSize,
+      @Value("${app.audit.flush-interval:500ms}") Duration flushInterval,
+      @Value("${app.audit.overflow:CALLER_RUNS}") AuditOverflowPolicy overflowPolicy) {
+    this.auditLogMapper = auditLogMapper;
+    this.payloadSerializer = payloadSerializer;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.notificationService = notificationService;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.written = Counter.builder("todo.audit.written").register(meterRegistry);
+    this.dropped = Counter.builder("todo.audit.dropped").register(meterRegistry);
+    Gauge.builder("todo.audit.queue", queue, BlockingQueue::size).register(meterRegistry);
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(1);
+    executor.setThreadNamePrefix("audit-writer-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationMillis(flushInterval.toMillis() * 4 + 5000);
+    executor.initialize();
+  }
+
+  public void enqueue(AuditLog entry) {
+    if (!running || !queue.offer(entry)) {
+      overflow(entry);
+      return;
+    }
+    if (queue.size() >= batchSize) {
+      scheduleFlush();
+    }
+  }
+
+  public void enqueueAll(List<AuditLog> entries) {
+    entries.forEach(this::enqueue);
+  }
+
+  public void flush() {
+    synchronized (writeLock) {
+      List<AuditLog> batch = new ArrayList<>(batchSize);
+      while (queue.drainTo(batch, batchSize) > 0) {
+        write(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.audit.flush-interval:500ms}")
+  public void scheduleFlush() {
+    if (!running || queue.isEmpty() || !flushPending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::drain);
+    } catch (TaskRejectedException ex) {
+      flushPending.set(false);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    executor.shutdown();
+    flush();
+  }
+
+  private void drain() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      log.error("async error at AuditLogWriter#flush", ex);
+      notificationService.notifyException("AuditLogWriter#flush", ex);
+    } finally {
+      flushPending.set(false);
+    }
+  }
+
+  private void overflow(AuditLog entry) {
+    if (overflowPolicy == AuditOverflowPolicy.DROP) {
+      dropped.increment();
+      log.warn("AUDIT dropped action={} username={}", entry.getAction(), entry.getUsername());
+      return;
+    }
+    synchronized (writeLock) {
+      write(List.of(entry));
+    }
+  }
+
+  private void write(List<AuditLog> batch) {
+    batch.forEach(this::materialize);
+    try {
+      transactionTemplate.executeWithoutResult(status -> auditLogMapper.insertAll(batch));
+      written.increment(batch.size());
+    } catch (RuntimeException ex) {
+      if (batch.size() == 1) {
+        dropped.increment();
+        log.error("AUDIT write failed action={} username={}", batch.get(0).getAction(),
+            batch.get(0).getUsername(), ex);
+        return;
+      }
+      log.warn("audit batch insert failed, retrying row by row count={}", batch.size(), ex);
+      for (AuditLog entry : batch) {
+        write(List.of(entry));
+      }
+    }
+  }
+
+  private void materialize(AuditLog entry) {
+    if (entry.getBeforeState() != null) {
+      entry.setBeforeValue(payloadSerializer.serialize(entry.getBeforeState()));
+    }
+    if (entry.getAfterState() != null) {
+      entry.setAfterValue(payloadSerializer.serialize(entry.getAfterState()));
+    }
+  }
+}
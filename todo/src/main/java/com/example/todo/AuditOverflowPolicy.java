@@ -0,0 +1,6 @@
+package com.example.todo;
+
+public enum AuditOverflowPolicy {
+  CALLER_RUNS,
+  DROP
+}
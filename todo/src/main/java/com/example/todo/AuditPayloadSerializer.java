@@ -0,0 +1,83 @@
+package com.example.todo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AuditPayloadSerializer {
+
+  private static final Logger log = LoggerFactory.getLogger(AuditPayloadSerializer.class);
+  private static final String ELLIPSIS = "...";
+
+  private final ObjectMapper objectMapper;
+  private final int maxLength;
+  private final int maxFieldLength;
+
+  public AuditPayloadSerializer(ObjectMapper objectMapper,
+      @Value("${app.audit.payload.max-length:4000}") int maxLength,
+      @Value("${app.audit.payload.max-field-length:500}") int maxFieldLength) {
+    this.objectMapper = objectMapper;
+    this.maxLength = maxLength;
+    this.maxFieldLength = maxFieldLength;
+  }
+
+  public String serialize(Map<String, Object> state) {
+    if (state == null) {
+      return null;
+    }
+    Map<String, Object> bounded = new LinkedHashMap<>();
+    state.forEach((key, value) -> bounded.put(key,
+        value instanceof String text ? shorten(text, maxFieldLength) : value));
+    String json = write(bounded);
+    while (json.length() > maxLength && !bounded.isEmpty()) {
+      String largest = largestKey(bounded);
+      int keep = bounded.get(largest) instanceof String text
+          ? text.length() - (json.length() - maxLength) - ELLIPSIS.length()
+          : 0;
+      if (keep > 0) {
+        bounded.put(largest, shorten((String) bounded.get(largest), keep));
+      } else {
+        bounded.remove(largest);
+      }
+      json = write(bounded);
+    }
+    return json;
+  }
+
+  private String largestKey(Map<String, Object> values) {
+    String largest = null;
+    int largestLength = -1;
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      int length = write(entry.getValue()).length();
+      if (length > largestLength) {
+        largest = entry.getKey();
+        largestLength = length;
+      }
+    }
+    return largest;
+  }
+
+  private String shorten(String text, int max) {
+    if (text.length() <= max) {
+      return text;
+    }
+    int end = Character.isHighSurrogate(text.charAt(max - 1)) ? max - 1 : max;
+    return text.substring(0, end) + ELLIPSIS;
+  }
+
+  private String write(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException ex) {
+      log.warn("audit serialize failed: {}", ex.getMessage());
+      return JsonNodeFactory.instance.textNode(String.valueOf(value)).toString();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.todo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Transient;
+import jakarta.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AuditSnapshotter {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final Map<String, EntityType<?>> entityTypes = new ConcurrentHashMap<>();
+  private final Map<Class<?>, List<Field>> fieldsByType = new ConcurrentHashMap<>();
+
+  public Map<String, Object> load(String targetType, String targetId) {
+    EntityType<?> entityType = entityType(targetType);
+    if (entityType == null || targetId == null) {
+      return null;
+    }
+    Object id;
+    try {
+      Class<?> idType = entityType.getIdType().getJavaType();
+      id = idType == Long.class ? Long.valueOf(targetId) : targetId;
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+    Object entity = entityManager.find(entityType.getJavaType(), id);
+    return entity == null ? null : snapshot(entity);
+  }
+
+  public boolean isEntity(Object value) {
+    return value != null && entityType(Hibernate.getClass(value).getSimpleName()) != null;
+  }
+
+  public Object idOf(Object entity) {
+    return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+  }
+
+  public Map<String, Object> snapshot(Object value) {
+    Object target = Hibernate.unproxy(value);
+    Map<String, Object> state = new LinkedHashMap<>();
+    for (Field field : fields(target.getClass())) {
+      Object fieldValue;
+      try {
+        fieldValue = field.get(target);
+      } catch (IllegalAccessException ex) {
+        continue;
+      }
+      if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)) {
+        state.put(field.getName() + "Id", fieldValue == null ? null : idOf(fieldValue));
+      } else {
+        state.put(field.getName(), fieldValue instanceof Enum<?> e ? e.name() : fieldValue);
+      }
+    }
+    return state;
+  }
+
+  public static Map<String, Object> changed(Map<String, Object> from, Map<String, Object> to) {
+    Map<String, Object> changed = new LinkedHashMap<>();
+    from.forEach((key, value) -> {
+      if (!Objects.equals(value, to.get(key))) {
+        changed.put(key, value);
+      }
+    });
+    return changed;
+  }
+
+  private EntityType<?> entityType(String name) {
+    if (name == null) {
+      return null;
+    }
+    if (entityTypes.isEmpty()) {
+      entityManager.getMetamodel().getEntities().forEach(type -> entityTypes.put(type.getName(), type));
+    }
+    return entityTypes.get(name);
+  }
+
+  private List<Field> fields(Class<?> type) {
+    return fieldsByType.computeIfAbsent(type, key -> {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> current = key; current != null && current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (isSnapshotField(field)) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return List.copyOf(fields);
+    });
+  }
+
+  private boolean isSnapshotField(Field field) {
+    int modifiers = field.getModifiers();
+    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+        || field.isAnnotationPresent(Transient.class) || field.isAnnotationPresent(JsonIgnore.class)
+        || field.getName().toLowerCase().contains("password")) {
+      return false;
+    }
+    if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)) {
+      return true;
+    }
+    Class<?> type = field.getType();
+    return type.isPrimitive() || type.isEnum() || Number.class.isAssignableFrom(type)
+        || type == String.class || type == Boolean.class || type == Character.class
+        || Temporal.class.isAssignableFrom(type);
+  }
+}
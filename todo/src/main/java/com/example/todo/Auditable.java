@@ -10,4 +10,5 @@ import java.lang.annotation.Target;
 public @interface Auditable {
   String action();
   String targetType() default "";
+  boolean diff() default false;
 }
@@ -1,11 +1,8 @@
 package com.example.todo;
 
 import jakarta.validation.Valid;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
@@ -22,26 +19,16 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class CategoryController {
 
   private final CategoryRepository categoryRepository;
-  private final MessageSource messageSource;
+  private final ReferenceDataCache referenceDataCache;
 
-  public CategoryController(CategoryRepository categoryRepository, MessageSource messageSource) {
+  public CategoryController(CategoryRepository categoryRepository, ReferenceDataCache referenceDataCache) {
     this.categoryRepository = categoryRepository;
-    this.messageSource = messageSource;
+    this.referenceDataCache = referenceDataCache;
   }
 
   @ModelAttribute("categoryLabels")
   public Map<Long, String> categoryLabels() {
-    Map<Long, String> labels = new LinkedHashMap<>();
-    Locale locale = LocaleContextHolder.getLocale();
-    for (Category category : categoryRepository.findAll()) {
-      if (category == null || category.getId() == null) {
-        continue;
-      }
-      String fallback = category.getName();
-      String label = messageSource.getMessage("category." + category.getId(), null, fallback, locale);
-      labels.put(category.getId(), label);
-    }
-    return labels;
+    return referenceDataCache.categoryLabels(LocaleContextHolder.getLocale());
   }
 
   @GetMapping("/categories")
@@ -67,6 +54,7 @@ public class CategoryController {
     category.setName(form.getName());
     category.setColor(form.getColor());
     categoryRepository.save(category);
+    referenceDataCache.invalidate();
     redirectAttributes.addFlashAttribute("successMessage", "カテゴリを作成しました。");
     return "redirect:/categories";
   }
@@ -93,6 +81,7 @@ public class CategoryController {
     category.setName(form.getName());
     category.setColor(form.getColor());
     categoryRepository.save(category);
+    referenceDataCache.invalidate();
     redirectAttributes.addFlashAttribute("successMessage", "カテゴリを更新しました。");
     return "redirect:/categories";
   }
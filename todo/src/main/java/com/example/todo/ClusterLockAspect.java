@@ -0,0 +1,58 @@
+package com.example.todo;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+@Aspect
+@Component
+public class ClusterLockAspect implements SmartInitializingSingleton {
+
+  private static final Logger log = LoggerFactory.getLogger(ClusterLockAspect.class);
+  private final ClusterLockService clusterLockService;
+  private final ListableBeanFactory beanFactory;
+
+  public ClusterLockAspect(ClusterLockService clusterLockService, ListableBeanFactory beanFactory) {
+    this.clusterLockService = clusterLockService;
+    this.beanFactory = beanFactory;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    for (String name : beanFactory.getBeanDefinitionNames()) {
+      Class<?> type = beanFactory.getType(name, false);
+      if (type == null) {
+        continue;
+      }
+      ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+        if (method.isAnnotationPresent(ClusterLocked.class) && method.getReturnType() != void.class) {
+          throw new IllegalStateException("@ClusterLocked method must return void because it is skipped "
+              + "when another node holds the lock: " + method);
+        }
+      });
+    }
+  }
+
+  @Around("@annotation(clusterLocked)")
+  public Object around(ProceedingJoinPoint joinPoint, ClusterLocked clusterLocked) throws Throwable {
+    Optional<ClusterLockService.Lock> lock = clusterLockService.tryAcquire(clusterLocked.name(),
+        Duration.parse(clusterLocked.lease()), Duration.parse(clusterLocked.lockAtLeastFor()));
+    if (lock.isEmpty()) {
+      log.info("skip {}: lock {} is held by another node", joinPoint.getSignature().toShortString(),
+          clusterLocked.name());
+      return null;
+    }
+    try (ClusterLockService.Lock held = lock.get()) {
+      return joinPoint.proceed();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ClusterLockService {
+
+  private static final Logger log = LoggerFactory.getLogger(ClusterLockService.class);
+  private static final int ADVISORY_NAMESPACE = 0x746f646f;
+
+  private final DataSource dataSource;
+  private final SchedulerLockMapper schedulerLockMapper;
+  private final MeterRegistry meterRegistry;
+  private final String mode;
+  private final String nodeId;
+  private final Map<String, Lock> held = new ConcurrentHashMap<>();
+  private volatile Boolean advisory;
+
+  public ClusterLockService(DataSource dataSource, SchedulerLockMapper schedulerLockMapper,
+      MeterRegistry meterRegistry,
+      @Value("${app.scheduler.lock.mode:auto}") String mode,
+      @Value("${app.scheduler.lock.node-id:}") String nodeId) {
+    this.dataSource = dataSource;
+    this.schedulerLockMapper = schedulerLockMapper;
+    this.meterRegistry = meterRegistry;
+    this.mode = mode;
+    this.nodeId = nodeId == null || nodeId.isBlank()
+        ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+        : nodeId;
+    Gauge.builder("todo.scheduler.lock.held.count", held, Map::size)
+        .register(meterRegistry);
+  }
+
+  public String nodeId() {
+    return nodeId;
+  }
+
+  public Optional<Lock> tryAcquire(String name, Duration lease) {
+    return tryAcquire(name, lease, Duration.ZERO);
+  }
+
+  public Optional<Lock> tryAcquire(String name, Duration lease, Duration lockAtLeastFor) {
+    if (held.containsKey(name)) {
+      return skipped(name);
+    }
+    Lock lock = useAdvisoryLocks() ? tryAdvisory(name, lockAtLeastFor) : tryTable(name, lease, lockAtLeastFor);
+    if (lock == null || held.putIfAbsent(name, lock) != null) {
+      if (lock != null) {
+        lock.release();
+      }
+      return skipped(name);
+    }
+    counter(name, "acquired").increment();
+    return Optional.of(lock);
+  }
+
+  private Optional<Lock> skipped(String name) {
+    counter(name, "skipped").increment();
+    return Optional.empty();
+  }
+
+  private Counter counter(String name, String result) {
+    return Counter.builder("todo.scheduler.lock")
+        .tag("name", name)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private boolean useAdvisoryLocks() {
+    Boolean resolved = advisory;
+    if (resolved == null) {
+      if ("auto".equalsIgnoreCase(mode)) {
+        try (Connection connection = dataSource.getConnection()) {
+          resolved = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException ex) {
+          throw new IllegalStateException("Failed to detect database for scheduler locks", ex);
+        }
+      } else {
+        resolved = "advisory".equalsIgnoreCase(mode);
+      }
+      advisory = resolved;
+    }
+    return resolved;
+  }
+
+  private Lock tryAdvisory(String name, Duration lockAtLeastFor) {
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, hashtext(?))")) {
+        statement.setInt(1, ADVISORY_NAMESPACE);
+        statement.setString(2, name);
+        try (ResultSet rs = statement.executeQuery()) {
+          if (rs.next() && rs.getBoolean(1)) {
+            if (lockAtLeastFor.isZero() || tryTable(name, lockAtLeastFor, lockAtLeastFor) != null) {
+              return new Lock(name, connection, lockAtLeastFor);
+            }
+            new Lock(name, connection, Duration.ZERO).release();
+            return null;
+          }
+        }
+      }
+      connection.close();
+    } catch (SQLException ex) {
+      log.warn("advisory lock failed name={}: {}", name, ex.getMessage());
+      closeQuietly(connection);
+    }
+    return null;
+  }
+
+  private Lock tryTable(String name, Duration lease, Duration lockAtLeastFor) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime until = now.plus(lease);
+    if (schedulerLockMapper.acquire(name, nodeId, now, until) == 1) {
+      return new Lock(name, null, lockAtLeastFor);
+    }
+    try {
+      return schedulerLockMapper.insert(name, nodeId, now, until) == 1 ? new Lock(name, null, lockAtLeastFor) : null;
+    } catch (DuplicateKeyException ex) {
+      return null;
+    }
+  }
+
+  private void closeQuietly(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException ex) {
+      log.debug("close failed: {}", ex.getMessage());
+    }
+  }
+
+  public final class Lock implements AutoCloseable {
+
+    private final String name;
+    private final Connection connection;
+    private final long acquiredAt = System.nanoTime();
+    private final LocalDateTime holdUntil;
+
+    private Lock(String name, Connection connection, Duration lockAtLeastFor) {
+      this.name = name;
+      this.connection = connection;
+      this.holdUntil = LocalDateTime.now().plus(lockAtLeastFor);
+    }
+
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public void close() {
+      if (held.remove(name, this)) {
+        Timer.builder("todo.scheduler.lock.held")
+            .tag("name", name)
+            .register(meterRegistry)
+            .record(Duration.ofNanos(System.nanoTime() - acquiredAt));
+      }
+      release();
+    }
+
+    private void release() {
+      LocalDateTime now = LocalDateTime.now();
+      if (connection == null || holdUntil.isAfter(now)) {
+        schedulerLockMapper.release(name, nodeId, holdUntil.isAfter(now) ? holdUntil : now);
+      }
+      if (connection == null) {
+        return;
+      }
+      try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?, hashtext(?))")) {
+        statement.setInt(1, ADVISORY_NAMESPACE);
+        statement.setString(2, name);
+        statement.execute();
+      } catch (SQLException ex) {
+        log.warn("advisory unlock failed name={}, dropping connection: {}", name, ex.getMessage());
+        try {
+          connection.abort(Runnable::run);
+        } catch (SQLException abortEx) {
+          log.debug("abort failed: {}", abortEx.getMessage());
+        }
+      } finally {
+        closeQuietly(connection);
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.todo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClusterLocked {
+  String name();
+  String lease() default "PT10M";
+  String lockAtLeastFor() default "PT0S";
+}
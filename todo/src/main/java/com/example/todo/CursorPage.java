@@ -0,0 +1,10 @@
+package com.example.todo;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> content, String nextCursor, Long total) {
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.todo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "export_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJob {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private ExportJobStatus status;
+
+  @Column(nullable = false)
+  private boolean gzip;
+
+  @Column(length = 255)
+  private String keyword;
+
+  @Column(length = 20)
+  private String sort;
+
+  @Column(length = 10)
+  private String direction;
+
+  private Long categoryId;
+
+  private Long groupId;
+
+  @Column(length = 20)
+  private String statusFilter;
+
+  @JsonIgnore
+  @Column(length = 35)
+  private String locale;
+
+  @Column(length = 255)
+  private String filename;
+
+  @JsonIgnore
+  @Column(length = 255)
+  private String storedFilename;
+
+  private Long rowCount;
+
+  private Long size;
+
+  @Column(length = 1000)
+  private String errorMessage;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime startedAt;
+
+  private LocalDateTime completedAt;
+
+  private LocalDateTime expiresAt;
+}
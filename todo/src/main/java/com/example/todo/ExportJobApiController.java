@@ -0,0 +1,85 @@
+package com.example.todo;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.net.URI;
+import java.util.List;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/exports")
+@Tag(name = "Export API", description = "Background CSV export jobs")
+public class ExportJobApiController {
+
+  private final ExportJobService exportJobService;
+  private final UserContextService userContextService;
+
+  public ExportJobApiController(ExportJobService exportJobService, UserContextService userContextService) {
+    this.exportJobService = exportJobService;
+    this.userContextService = userContextService;
+  }
+
+  @PostMapping
+  @Operation(summary = "Submit export job", description = "Queues a CSV export of the todos matching the filter. "
+      + "Poll the returned job until it is COMPLETED, then download it")
+  public ResponseEntity<ApiResponse<ExportJob>> submit(@RequestBody(required = false) ExportJobRequest request,
+      @AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    ExportJob job = exportJobService.submit(userId, request, LocaleContextHolder.getLocale());
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .location(URI.create("/api/exports/" + job.getId()))
+        .body(ApiResponse.ok("エクスポートを受け付けました。", job));
+  }
+
+  @GetMapping
+  @Operation(summary = "List export jobs", description = "Returns the latest export jobs of the authenticated user")
+  public ResponseEntity<ApiResponse<List<ExportJob>>> list(@AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    return ResponseEntity.ok(ApiResponse.ok("一覧取得に成功しました。", exportJobService.findRecent(userId)));
+  }
+
+  @GetMapping("/{id}")
+  @Operation(summary = "Get export job", description = "Returns the status of an export job")
+  public ResponseEntity<ApiResponse<ExportJob>> find(@PathVariable("id") long id,
+      @AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    return ResponseEntity.ok(ApiResponse.ok("取得に成功しました。", exportJobService.find(id, userId)));
+  }
+
+  @GetMapping("/{id}/download")
+  @Operation(summary = "Download export", description = "Downloads the file of a completed export job")
+  public ResponseEntity<Resource> download(@PathVariable("id") long id,
+      @AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    ExportJob job = exportJobService.find(id, userId);
+    Resource resource = exportJobService.loadArtifact(job);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportJobService.contentType(job)))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(job.getFilename()).build().toString())
+        .body(resource);
+  }
+
+  private long requireUserId(UserDetails userDetails) {
+    if (userDetails == null) {
+      throw new org.springframework.web.server.ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    }
+    return userContextService.findByUsername(userDetails.getUsername())
+        .map(UserContext::id)
+        .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.UNAUTHORIZED));
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+  long countByUserIdAndStatusIn(Long userId, Collection<ExportJobStatus> statuses);
+
+  Optional<ExportJob> findByIdAndUserId(Long id, Long userId);
+
+  List<ExportJob> findTop20ByUserIdOrderByCreatedAtDesc(Long userId);
+
+  List<ExportJob> findAllByStatusInAndExpiresAtBefore(Collection<ExportJobStatus> statuses, LocalDateTime time);
+
+  List<ExportJob> findAllByStatusInAndCreatedAtBefore(Collection<ExportJobStatus> statuses, LocalDateTime time);
+
+  List<ExportJob> findAllByStatusOrderByCreatedAtAsc(ExportJobStatus status);
+
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update ExportJob j set j.status = com.example.todo.ExportJobStatus.RUNNING, j.startedAt = :startedAt "
+      + "where j.id = :id and j.status = com.example.todo.ExportJobStatus.PENDING")
+  int start(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt);
+
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update ExportJob j set j.status = com.example.todo.ExportJobStatus.COMPLETED, "
+      + "j.storedFilename = :storedFilename, j.size = :size, j.rowCount = :rowCount, "
+      + "j.completedAt = :completedAt, j.expiresAt = :expiresAt "
+      + "where j.id = :id and j.status = com.example.todo.ExportJobStatus.RUNNING")
+  int complete(@Param("id") Long id, @Param("storedFilename") String storedFilename, @Param("size") long size,
+      @Param("rowCount") long rowCount, @Param("completedAt") LocalDateTime completedAt,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update ExportJob j set j.status = com.example.todo.ExportJobStatus.FAILED, "
+      + "j.errorMessage = :errorMessage, j.completedAt = :completedAt, j.expiresAt = :expiresAt "
+      + "where j.id = :id and j.status = :expected")
+  int fail(@Param("id") Long id, @Param("expected") ExportJobStatus expected,
+      @Param("errorMessage") String errorMessage, @Param("completedAt") LocalDateTime completedAt,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update ExportJob j set j.status = com.example.todo.ExportJobStatus.EXPIRED, j.storedFilename = null "
+      + "where j.id = :id and j.status = :expected")
+  int expire(@Param("id") Long id, @Param("expected") ExportJobStatus expected);
+}
@@ -0,0 +1,14 @@
+package com.example.todo;
+
+import lombok.Data;
+
+@Data
+public class ExportJobRequest {
+  private String keyword;
+  private String sort;
+  private String direction;
+  private Long categoryId;
+  private Long groupId;
+  private String status;
+  private boolean gzip;
+}
@@ -0,0 +1,183 @@
+package com.example.todo;
+
+import jakarta.annotation.PreDestroy;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ExportJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+  private static final List<ExportJobStatus> ACTIVE = List.of(ExportJobStatus.PENDING, ExportJobStatus.RUNNING);
+  private static final List<ExportJobStatus> FINISHED = List.of(ExportJobStatus.COMPLETED, ExportJobStatus.FAILED);
+  private static final String CSV_CONTENT_TYPE = "text/csv; charset=UTF-8";
+  private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+  private final ExportJobRepository exportJobRepository;
+  private final TodoService todoService;
+  private final FileStorageService fileStorageService;
+  private final int maxActivePerUser;
+  private final Duration retention;
+  private final Duration timeout;
+  private final ThreadPoolTaskExecutor executor;
+
+  public ExportJobService(ExportJobRepository exportJobRepository, TodoService todoService,
+      FileStorageService fileStorageService,
+      @Value("${app.export.max-active-per-user:2}") int maxActivePerUser,
+      @Value("${app.export.threads:2}") int threads,
+      @Value("${app.export.retention:24h}") Duration retention,
+      @Value("${app.export.timeout:1h}") Duration timeout) {
+    this.exportJobRepository = exportJobRepository;
+    this.todoService = todoService;
+    this.fileStorageService = fileStorageService;
+    this.maxActivePerUser = maxActivePerUser;
+    this.retention = retention;
+    this.timeout = timeout;
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(100);
+    executor.setThreadNamePrefix("export-");
+    executor.initialize();
+  }
+
+  public synchronized ExportJob submit(long userId, ExportJobRequest request, Locale locale) {
+    if (exportJobRepository.countByUserIdAndStatusIn(userId, ACTIVE) >= maxActivePerUser) {
+      throw new BusinessException("実行中のエクスポートが上限に達しています。完了してから再度お試しください。");
+    }
+    ExportJobRequest safeRequest = request == null ? new ExportJobRequest() : request;
+    String extension = safeRequest.isGzip() ? ".csv.gz" : ".csv";
+    ExportJob job = exportJobRepository.save(ExportJob.builder()
+        .userId(userId)
+        .status(ExportJobStatus.PENDING)
+        .gzip(safeRequest.isGzip())
+        .keyword(safeRequest.getKeyword())
+        .sort(safeRequest.getSort())
+        .direction(safeRequest.getDirection())
+        .categoryId(safeRequest.getCategoryId())
+        .groupId(safeRequest.getGroupId())
+        .statusFilter(safeRequest.getStatus())
+        .locale(locale == null ? null : locale.toLanguageTag())
+        .filename("todo_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + extension)
+        .createdAt(LocalDateTime.now())
+        .build());
+    long jobId = job.getId();
+    try {
+      executor.execute(() -> run(jobId));
+    } catch (TaskRejectedException e) {
+      fail(jobId, ExportJobStatus.PENDING, "エクスポートの受付に失敗しました。時間をおいて再度お試しください。");
+      throw new BusinessException("エクスポートの受付に失敗しました。時間をおいて再度お試しください。");
+    }
+    return job;
+  }
+
+  public List<ExportJob> findRecent(long userId) {
+    return exportJobRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId);
+  }
+
+  public ExportJob find(long jobId, long userId) {
+    return exportJobRepository.findByIdAndUserId(jobId, userId)
+        .orElseThrow(() -> new TodoNotFoundException("エクスポートが見つかりません。"));
+  }
+
+  public Resource loadArtifact(ExportJob job) {
+    if (job.getStatus() != ExportJobStatus.COMPLETED || job.getStoredFilename() == null) {
+      throw new BusinessException("エクスポートはダウンロードできる状態ではありません。");
+    }
+    return fileStorageService.loadAsResource(job.getStoredFilename());
+  }
+
+  public String contentType(ExportJob job) {
+    return job.isGzip() ? GZIP_CONTENT_TYPE : CSV_CONTENT_TYPE;
+  }
+
+  @Scheduled(fixedDelayString = "${app.export.cleanup-interval:PT15M}")
+  @ClusterLocked(name = "export-purge", lockAtLeastFor = "PT1M")
+  public void purgeExpired() {
+    LocalDateTime now = LocalDateTime.now();
+    for (ExportJob job : exportJobRepository.findAllByStatusInAndCreatedAtBefore(ACTIVE, now.minus(timeout))) {
+      fail(job.getId(), job.getStatus(), "エクスポートがタイムアウトしました。");
+    }
+    for (ExportJob job : exportJobRepository.findAllByStatusInAndExpiresAtBefore(FINISHED, now)) {
+      if (job.getStoredFilename() != null) {
+        try {
+          fileStorageService.delete(job.getStoredFilename());
+        } catch (BusinessException e) {
+          log.warn("export artifact cleanup failed job={} file={}", job.getId(), job.getStoredFilename());
+          continue;
+        }
+      }
+      exportJobRepository.expire(job.getId(), job.getStatus());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumePending() {
+    for (ExportJob job : exportJobRepository.findAllByStatusOrderByCreatedAtAsc(ExportJobStatus.PENDING)) {
+      long jobId = job.getId();
+      try {
+        executor.execute(() -> run(jobId));
+      } catch (TaskRejectedException e) {
+        log.warn("export job could not be resumed id={}", jobId);
+        return;
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  void run(long jobId) {
+    ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+    if (job == null || job.getStatus() != ExportJobStatus.PENDING
+        || exportJobRepository.start(jobId, LocalDateTime.now()) == 0) {
+      return;
+    }
+    long[] rowCount = new long[1];
+    try {
+      Locale locale = job.getLocale() == null ? Locale.getDefault() : Locale.forLanguageTag(job.getLocale());
+      FileStorageService.StoredFile stored = fileStorageService.write(job.getFilename(), contentType(job),
+          out -> {
+            OutputStream target = job.isGzip() ? new GZIPOutputStream(out) : out;
+            rowCount[0] = todoService.writeExport(job.getUserId(), job.getKeyword(), job.getSort(),
+                job.getDirection(), job.getCategoryId(), job.getGroupId(), job.getStatusFilter(),
+                locale, target);
+            if (target instanceof GZIPOutputStream gzip) {
+              gzip.finish();
+            }
+          });
+      LocalDateTime completedAt = LocalDateTime.now();
+      if (exportJobRepository.complete(jobId, stored.storedFilename(), stored.size(), rowCount[0], completedAt,
+          completedAt.plus(retention)) == 0) {
+        log.warn("export job finished after it was closed id={}", jobId);
+        fileStorageService.delete(stored.storedFilename());
+      }
+    } catch (RuntimeException e) {
+      log.error("export job failed id={} user={}", jobId, job.getUserId(), e);
+      fail(jobId, ExportJobStatus.RUNNING, "エクスポートに失敗しました。");
+    }
+  }
+
+  private void fail(long jobId, ExportJobStatus expected, String message) {
+    LocalDateTime now = LocalDateTime.now();
+    exportJobRepository.fail(jobId, expected, message, now, now.plus(retention));
+  }
+}
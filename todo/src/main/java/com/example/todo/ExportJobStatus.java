@@ -0,0 +1,9 @@
+package com.example.todo;
+
+public enum ExportJobStatus {
+  PENDING,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  EXPIRED
+}
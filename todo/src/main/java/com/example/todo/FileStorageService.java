@@ -1,6 +1,7 @@
 package com.example.todo;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -42,6 +43,28 @@ public class FileStorageService {
     return new StoredFile(originalName, storedName, file.getContentType(), file.getSize());
   }
 
+  public StoredFile write(String filename, String contentType, ContentWriter writer) {
+    String originalName = sanitizeOriginalFilename(filename);
+    String storedName = UUID.randomUUID().toString().replace("-", "") + getExtension(originalName);
+    Path target = rootDir.resolve(storedName);
+    try {
+      try (OutputStream out = Files.newOutputStream(target)) {
+        writer.writeTo(out);
+      }
+      return new StoredFile(originalName, storedName, contentType, Files.size(target));
+    } catch (IOException | RuntimeException e) {
+      try {
+        Files.deleteIfExists(target);
+      } catch (IOException ignored) {
+        // keep the original failure
+      }
+      if (e instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new BusinessException("ファイルの保存に失敗しました。");
+    }
+  }
+
   public Resource loadAsResource(String storedFilename) {
     try {
       Path file = rootDir.resolve(storedFilename).normalize();
@@ -80,6 +103,11 @@ public class FileStorageService {
     return filename.substring(dot);
   }
 
+  @FunctionalInterface
+  public interface ContentWriter {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
   public record StoredFile(String originalFilename, String storedFilename,
                            String contentType, long size) {
   }
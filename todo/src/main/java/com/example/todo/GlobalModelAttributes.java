@@ -1,8 +1,6 @@
 package com.example.todo;
 
 import java.util.List;
-import java.util.Locale;
-import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,19 +9,15 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 @ControllerAdvice
 public class GlobalModelAttributes {
 
-  private final MessageSource messageSource;
-  private final List<String> supportedLangs = List.of("ja", "en", "zh");
+  private final ReferenceDataCache referenceDataCache;
 
-  public GlobalModelAttributes(MessageSource messageSource) {
-    this.messageSource = messageSource;
+  public GlobalModelAttributes(ReferenceDataCache referenceDataCache) {
+    this.referenceDataCache = referenceDataCache;
   }
 
   @ModelAttribute("langOptions")
   public List<LangOption> langOptions() {
-    Locale locale = LocaleContextHolder.getLocale();
-    return supportedLangs.stream()
-        .map(code -> new LangOption(code, messageSource.getMessage("lang." + code, null, code, locale)))
-        .toList();
+    return referenceDataCache.langOptions(LocaleContextHolder.getLocale());
   }
 
   @ModelAttribute("currentLang")
@@ -33,9 +27,7 @@ public class GlobalModelAttributes {
 
   @ModelAttribute("currentLangLabel")
   public String currentLangLabel() {
-    Locale locale = LocaleContextHolder.getLocale();
-    String code = locale.getLanguage();
-    return messageSource.getMessage("lang." + code, null, code, locale);
+    return referenceDataCache.langLabel(LocaleContextHolder.getLocale());
   }
 
   public record LangOption(String code, String label) {}
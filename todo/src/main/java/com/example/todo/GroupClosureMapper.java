@@ -0,0 +1,26 @@
+package com.example.todo;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface GroupClosureMapper {
+
+  int insertSelf(@Param("groupId") long groupId);
+
+  int insertUnderParent(@Param("groupId") long groupId,
+      @Param("parentId") long parentId);
+
+  int detachSubtree(@Param("groupId") long groupId);
+
+  int attachSubtree(@Param("groupId") long groupId,
+      @Param("parentId") long parentId);
+
+  int insertLink(@Param("ancestorId") long ancestorId,
+      @Param("descendantId") long descendantId,
+      @Param("depth") int depth);
+
+  int deleteAll();
+
+  long countSelfLinks();
+}
@@ -0,0 +1,63 @@
+package com.example.todo;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class GroupClosureService {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupClosureService.class);
+  private final GroupClosureMapper groupClosureMapper;
+  private final GroupRepository groupRepository;
+
+  public GroupClosureService(GroupClosureMapper groupClosureMapper, GroupRepository groupRepository) {
+    this.groupClosureMapper = groupClosureMapper;
+    this.groupRepository = groupRepository;
+  }
+
+  @Transactional
+  public void addGroup(long groupId, Long parentId) {
+    groupClosureMapper.insertSelf(groupId);
+    if (parentId != null) {
+      groupClosureMapper.insertUnderParent(groupId, parentId);
+    }
+  }
+
+  @Transactional
+  public void moveGroup(long groupId, Long parentId) {
+    groupClosureMapper.detachSubtree(groupId);
+    if (parentId != null) {
+      groupClosureMapper.attachSubtree(groupId, parentId);
+    }
+  }
+
+  @Transactional
+  public int rebuild() {
+    groupClosureMapper.deleteAll();
+    int rows = 0;
+    List<Group> groups = groupRepository.findAll();
+    for (Group group : groups) {
+      Set<Long> visited = new HashSet<>();
+      int depth = 0;
+      for (Group current = group; current != null && visited.add(current.getId()); current = current.getParent()) {
+        rows += groupClosureMapper.insertLink(current.getId(), group.getId(), depth++);
+      }
+    }
+    log.info("group_closure rebuilt groups={} rows={}", groups.size(), rows);
+    return rows;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildIfOutdated() {
+    if (groupClosureMapper.countSelfLinks() != groupRepository.count()) {
+      rebuild();
+    }
+  }
+}
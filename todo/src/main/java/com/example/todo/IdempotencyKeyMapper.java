@@ -0,0 +1,21 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface IdempotencyKeyMapper {
+
+  int insert(@Param("record") IdempotencyRecord record);
+
+  IdempotencyRecord find(@Param("key") String key);
+
+  int complete(@Param("record") IdempotencyRecord record);
+
+  int delete(@Param("key") String key);
+
+  int deleteExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+  int purgeExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+  private String idempotencyKey;
+  private String fingerprint;
+  private Integer statusCode;
+  private String responseBody;
+  private String etag;
+  private Long resourceId;
+  private LocalDateTime expiresAt;
+
+  public boolean isCompleted() {
+    return statusCode != null;
+  }
+}
@@ -0,0 +1,221 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class IdempotencyStore {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final IdempotencyKeyMapper idempotencyKeyMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration ttl;
+  private final int maxEntries;
+  private final boolean shared;
+  private final long bucketMillis;
+  private final Bucket[] ring;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  private final AtomicInteger size = new AtomicInteger();
+  private final Counter replays;
+  private final Counter evictions;
+
+  public IdempotencyStore(IdempotencyKeyMapper idempotencyKeyMapper,
+      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+      @Value("${app.idempotency.ttl:24h}") Duration ttl,
+      @Value("${app.idempotency.max-entries:100000}") int maxEntries,
+      @Value("${app.idempotency.buckets:24}") int buckets,
+      @Value("${app.idempotency.shared:false}") boolean shared) {
+    this.idempotencyKeyMapper = idempotencyKeyMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.ttl = ttl;
+    this.maxEntries = maxEntries;
+    this.shared = shared;
+    this.bucketMillis = Math.max(1, ttl.toMillis() / Math.max(1, buckets - 1));
+    this.ring = new Bucket[Math.max(2, buckets)];
+    for (int i = 0; i < ring.length; i++) {
+      ring[i] = new Bucket();
+    }
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+    this.replays = Counter.builder("todo.idempotency.replays").register(meterRegistry);
+    this.evictions = Counter.builder("todo.idempotency.evictions").register(meterRegistry);
+    Gauge.builder("todo.idempotency.entries", size, AtomicInteger::get)
+        .register(meterRegistry);
+  }
+
+  public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+    return claim(key, fingerprint, ttl);
+  }
+
+  public Optional<IdempotencyRecord> claim(String key, String fingerprint, Duration lifetime) {
+    LocalDateTime now = LocalDateTime.now();
+    long nowMillis = toMillis(now);
+    Duration bounded = lifetime.compareTo(ttl) > 0 ? ttl : lifetime;
+    synchronized (lockFor(key)) {
+      sweep(nowMillis / bucketMillis);
+      IdempotencyRecord existing = find(key, nowMillis);
+      if (existing == null && shared) {
+        existing = claimShared(new IdempotencyRecord(key, fingerprint, null, null, null, null, now.plus(bounded)), now);
+      }
+      if (existing != null) {
+        replays.increment();
+        return Optional.of(existing);
+      }
+      put(new IdempotencyRecord(key, fingerprint, null, null, null, null, now.plus(bounded)));
+      return Optional.empty();
+    }
+  }
+
+  public void complete(String key, int statusCode, String responseBody, String etag, Long resourceId) {
+    synchronized (lockFor(key)) {
+      IdempotencyRecord claimed = find(key, System.currentTimeMillis());
+      IdempotencyRecord completed = new IdempotencyRecord(key,
+          claimed == null ? null : claimed.getFingerprint(), statusCode, responseBody, etag, resourceId,
+          claimed == null ? null : claimed.getExpiresAt());
+      if (claimed != null) {
+        put(completed);
+      }
+      if (shared) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyMapper.complete(completed));
+      }
+    }
+  }
+
+  public void release(String key) {
+    synchronized (lockFor(key)) {
+      for (Bucket bucket : ring) {
+        if (bucket.entries.remove(key) != null) {
+          size.decrementAndGet();
+        }
+      }
+      if (shared) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyMapper.delete(key));
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+  @ClusterLocked(name = "idempotency-purge", lockAtLeastFor = "PT5M")
+  public void purgeExpired() {
+    if (shared) {
+      idempotencyKeyMapper.purgeExpired(LocalDateTime.now());
+    }
+  }
+
+  int size() {
+    return size.get();
+  }
+
+  private IdempotencyRecord claimShared(IdempotencyRecord record, LocalDateTime now) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        idempotencyKeyMapper.deleteExpired(record.getIdempotencyKey(), now);
+        idempotencyKeyMapper.insert(record);
+      });
+      return null;
+    } catch (DuplicateKeyException ex) {
+      IdempotencyRecord existing = transactionTemplate.execute(
+          status -> idempotencyKeyMapper.find(record.getIdempotencyKey()));
+      if (existing == null) {
+        return record;
+      }
+      if (existing.isCompleted()) {
+        put(existing);
+      }
+      return existing;
+    }
+  }
+
+  private IdempotencyRecord find(String key, long nowMillis) {
+    for (Bucket bucket : ring) {
+      IdempotencyRecord record = bucket.entries.get(key);
+      if (record != null && toMillis(record.getExpiresAt()) > nowMillis) {
+        return record;
+      }
+    }
+    return null;
+  }
+
+  private void put(IdempotencyRecord record) {
+    long slot = toMillis(record.getExpiresAt()) / bucketMillis;
+    Bucket bucket = ring[(int) Math.floorMod(slot, (long) ring.length)];
+    synchronized (bucket) {
+      if (bucket.slot != slot) {
+        clear(bucket);
+        bucket.slot = slot;
+      }
+      if (bucket.entries.put(record.getIdempotencyKey(), record) == null) {
+        size.incrementAndGet();
+      }
+    }
+    while (size.get() > maxEntries) {
+      if (!evictOldest()) {
+        break;
+      }
+    }
+  }
+
+  private void sweep(long currentSlot) {
+    for (Bucket bucket : ring) {
+      synchronized (bucket) {
+        if (bucket.slot >= 0 && bucket.slot < currentSlot) {
+          clear(bucket);
+          bucket.slot = -1;
+        }
+      }
+    }
+  }
+
+  private boolean evictOldest() {
+    Bucket oldest = null;
+    for (Bucket bucket : ring) {
+      if (!bucket.entries.isEmpty() && (oldest == null || bucket.slot < oldest.slot)) {
+        oldest = bucket;
+      }
+    }
+    if (oldest == null) {
+      return false;
+    }
+    synchronized (oldest) {
+      evictions.increment(oldest.entries.size());
+      clear(oldest);
+    }
+    return true;
+  }
+
+  private void clear(Bucket bucket) {
+    size.addAndGet(-bucket.entries.size());
+    bucket.entries.clear();
+  }
+
+  private Object lockFor(String key) {
+    return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+  }
+
+  private long toMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static final class Bucket {
+    private long slot = -1;
+    private final Map<String, IdempotencyRecord> entries = new ConcurrentHashMap<>();
+  }
+}
@@ -0,0 +1,197 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MailOutboxDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+  private static final List<MailOutboxStatus> CLAIMABLE = List.of(MailOutboxStatus.PENDING, MailOutboxStatus.SENDING);
+
+  private final MailOutboxRepository mailOutboxRepository;
+  private final JavaMailSender mailSender;
+  private final String fromAddress;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration backoff;
+  private final Duration maxBackoff;
+  private final Duration lease;
+  private final Duration retention;
+  private final double ratePerSecond;
+  private final Counter sent;
+  private final Counter retried;
+  private final Counter failed;
+  private double tokens;
+  private long refilledAt = System.nanoTime();
+
+  public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository, JavaMailSender mailSender,
+      MeterRegistry meterRegistry,
+      @Value("${app.mail.from}") String fromAddress,
+      @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+      @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+      @Value("${app.mail.outbox.backoff:30s}") Duration backoff,
+      @Value("${app.mail.outbox.max-backoff:1h}") Duration maxBackoff,
+      @Value("${app.mail.outbox.lease:5m}") Duration lease,
+      @Value("${app.mail.outbox.retention:7d}") Duration retention,
+      @Value("${app.mail.outbox.rate-per-second:2}") double ratePerSecond) {
+    this.mailOutboxRepository = mailOutboxRepository;
+    this.mailSender = mailSender;
+    this.fromAddress = fromAddress;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.backoff = backoff;
+    this.maxBackoff = maxBackoff;
+    this.lease = lease;
+    this.retention = retention;
+    this.ratePerSecond = ratePerSecond;
+    this.tokens = batchSize;
+    this.sent = Counter.builder("todo.mail.outbox")
+        .tag("result", "sent")
+        .register(meterRegistry);
+    this.retried = Counter.builder("todo.mail.outbox")
+        .tag("result", "retry")
+        .register(meterRegistry);
+    this.failed = Counter.builder("todo.mail.outbox")
+        .tag("result", "failed")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:5s}",
+      initialDelayString = "${app.mail.outbox.poll-interval:5s}")
+  public synchronized int dispatch() {
+    int permits = availablePermits();
+    if (permits == 0) {
+      return 0;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    Map<MimeMessage, MailOutbox> messages = new LinkedHashMap<>();
+    for (MailOutbox mail : mailOutboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+        CLAIMABLE, now, PageRequest.of(0, permits))) {
+      if (mailOutboxRepository.claim(mail.getId(), mail.getAttempts(), CLAIMABLE, now.plus(lease)) == 0) {
+        continue;
+      }
+      mail.setAttempts(mail.getAttempts() + 1);
+      tokens -= 1;
+      try {
+        messages.put(toMessage(mail), mail);
+      } catch (MessagingException ex) {
+        fail(mail, ex);
+      }
+    }
+    if (messages.isEmpty()) {
+      return 0;
+    }
+    Map<Object, Exception> failures = Map.of();
+    try {
+      mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+    } catch (MailSendException ex) {
+      failures = ex.getFailedMessages().isEmpty() ? allFailed(messages, ex) : ex.getFailedMessages();
+    } catch (MailException ex) {
+      failures = allFailed(messages, ex);
+    }
+    for (Map.Entry<MimeMessage, MailOutbox> entry : messages.entrySet()) {
+      Exception error = failures.get(entry.getKey());
+      if (error == null) {
+        markSent(entry.getValue());
+      } else {
+        retryOrFail(entry.getValue(), error);
+      }
+    }
+    return messages.size();
+  }
+
+  @Scheduled(fixedDelayString = "${app.mail.outbox.cleanup-interval:PT1H}")
+  @ClusterLocked(name = "mail-outbox-purge", lockAtLeastFor = "PT5M")
+  public void purgeSent() {
+    long purged = mailOutboxRepository.deleteByStatusAndSentAtBefore(MailOutboxStatus.SENT,
+        LocalDateTime.now().minus(retention));
+    if (purged > 0) {
+      log.info("mail outbox purged count={}", purged);
+    }
+  }
+
+  private int availablePermits() {
+    long now = System.nanoTime();
+    tokens = Math.min(batchSize, tokens + (now - refilledAt) / 1_000_000_000d * ratePerSecond);
+    refilledAt = now;
+    return (int) Math.floor(tokens);
+  }
+
+  private MimeMessage toMessage(MailOutbox mail) throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+    helper.setFrom(fromAddress);
+    helper.setTo(mail.getRecipient());
+    helper.setSubject(mail.getSubject());
+    helper.setText(mail.getBody(), mail.isHtml());
+    return message;
+  }
+
+  private Map<Object, Exception> allFailed(Map<MimeMessage, MailOutbox> messages, Exception ex) {
+    Map<Object, Exception> failures = new LinkedHashMap<>();
+    messages.keySet().forEach(message -> failures.put(message, ex));
+    return failures;
+  }
+
+  private void markSent(MailOutbox mail) {
+    LocalDateTime now = LocalDateTime.now();
+    if (finish(mail, MailOutboxStatus.SENT, now, now, null)) {
+      sent.increment();
+    }
+  }
+
+  private void retryOrFail(MailOutbox mail, Exception error) {
+    if (mail.getAttempts() >= maxAttempts) {
+      fail(mail, error);
+      return;
+    }
+    Duration delay = backoff.multipliedBy(1L << Math.min(mail.getAttempts() - 1, 20));
+    LocalDateTime retryAt = LocalDateTime.now().plus(delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay);
+    if (!finish(mail, MailOutboxStatus.PENDING, retryAt, null, truncate(error))) {
+      return;
+    }
+    retried.increment();
+    log.warn("mail send failed id={} attempt={} retryAt={}", mail.getId(), mail.getAttempts(), retryAt, error);
+  }
+
+  private void fail(MailOutbox mail, Exception error) {
+    if (!finish(mail, MailOutboxStatus.FAILED, mail.getNextAttemptAt(), null, truncate(error))) {
+      return;
+    }
+    failed.increment();
+    log.error("mail send gave up id={} attempts={}", mail.getId(), mail.getAttempts(), error);
+  }
+
+  private boolean finish(MailOutbox mail, MailOutboxStatus status, LocalDateTime nextAttemptAt,
+      LocalDateTime sentAt, String lastError) {
+    if (mailOutboxRepository.finish(mail.getId(), mail.getAttempts(), status, nextAttemptAt, sentAt,
+        lastError) == 1) {
+      return true;
+    }
+    log.warn("mail outbox lease lost id={} attempt={} status={}", mail.getId(), mail.getAttempts(), status);
+    return false;
+  }
+
+  private String truncate(Exception error) {
+    String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+    return message.length() > 1000 ? message.substring(0, 1000) : message;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+  List<MailOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+      Collection<MailOutboxStatus> statuses, LocalDateTime time, Pageable pageable);
+
+  @Transactional
+  @Modifying
+  @Query("update MailOutbox m set m.status = com.example.todo.MailOutboxStatus.SENDING, "
+      + "m.attempts = m.attempts + 1, m.nextAttemptAt = :leaseUntil "
+      + "where m.id = :id and m.attempts = :attempts and m.status in :statuses")
+  int claim(@Param("id") Long id, @Param("attempts") int attempts,
+      @Param("statuses") Collection<MailOutboxStatus> statuses, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  @Transactional
+  @Modifying
+  @Query("update MailOutbox m set m.status = :status, m.nextAttemptAt = :nextAttemptAt, "
+      + "m.sentAt = :sentAt, m.lastError = :lastError "
+      + "where m.id = :id and m.attempts = :attempts and m.status = com.example.todo.MailOutboxStatus.SENDING")
+  int finish(@Param("id") Long id, @Param("attempts") int attempts, @Param("status") MailOutboxStatus status,
+      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("sentAt") LocalDateTime sentAt,
+      @Param("lastError") String lastError);
+
+  @Transactional
+  long deleteByStatusAndSentAtBefore(MailOutboxStatus status, LocalDateTime time);
+}
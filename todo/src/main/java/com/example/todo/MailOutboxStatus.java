@@ -0,0 +1,8 @@
+package com.example.todo;
+
+public enum MailOutboxStatus {
+  PENDING,
+  SENDING,
+  SENT,
+  FAILED
+}
@@ -1,15 +1,11 @@
 package com.example.todo;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
@@ -20,13 +16,13 @@ public class MailService {
   private static final Logger log = LoggerFactory.getLogger(MailService.class);
   private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
 
-  private final JavaMailSender mailSender;
+  private final MailOutboxRepository mailOutboxRepository;
   private final TemplateEngine templateEngine;
   private final String fromAddress;
 
-  public MailService(JavaMailSender mailSender, TemplateEngine templateEngine,
+  public MailService(MailOutboxRepository mailOutboxRepository, TemplateEngine templateEngine,
       @Value("${app.mail.from}") String fromAddress) {
-    this.mailSender = mailSender;
+    this.mailOutboxRepository = mailOutboxRepository;
     this.templateEngine = templateEngine;
     this.fromAddress = fromAddress;
   }
@@ -40,32 +36,49 @@ public class MailService {
       log.warn("skip todo created mail: from address missing");
       return;
     }
-    SimpleMailMessage message = new SimpleMailMessage();
-    message.setFrom(fromAddress);
-    message.setTo(user.getEmail());
-    message.setSubject("ToDo created");
-    message.setText(buildTodoCreatedText(user, todo));
-    mailSender.send(message);
+    enqueue("TODO_CREATED", user.getEmail(), "ToDo created", buildTodoCreatedText(user, todo), false);
   }
 
-  public void sendDueSoonReminder(AppUser user, List<Todo> todos) {
+  public void sendTodosCreated(AppUser user, List<Todo> todos) {
     if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
-      log.warn("skip reminder mail: user email missing");
+      log.warn("skip todos created mail: user email missing");
       return;
     }
     if (fromAddress == null || fromAddress.isBlank()) {
-      log.warn("skip reminder mail: from address missing");
+      log.warn("skip todos created mail: from address missing");
       return;
     }
     if (todos == null || todos.isEmpty()) {
       return;
     }
+    StringBuilder text = new StringBuilder()
+        .append("Hello ").append(user.getUsername()).append("\n")
+        .append(todos.size()).append(" ToDos were created.\n");
+    for (Todo todo : todos) {
+      String due = todo.getDueDate() == null ? "-" : todo.getDueDate().format(DATE_FORMATTER);
+      text.append("- ").append(todo.getTitle()).append(" (Due: ").append(due).append(")\n");
+    }
+    enqueue("TODOS_CREATED", user.getEmail(), "ToDos created", text.toString(), false);
+  }
+
+  public MailOutbox renderDueSoonReminder(AppUser user, List<Todo> todos) {
+    if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
+      log.warn("skip reminder mail: user email missing");
+      return null;
+    }
+    if (fromAddress == null || fromAddress.isBlank()) {
+      log.warn("skip reminder mail: from address missing");
+      return null;
+    }
+    if (todos == null || todos.isEmpty()) {
+      return null;
+    }
     Context context = new Context();
     context.setVariable("user", user);
     context.setVariable("todos", todos);
     context.setVariable("dateFormatter", DATE_FORMATTER);
     String html = templateEngine.process("mail/todo_reminder", context);
-    sendHtml(user.getEmail(), "ToDo reminder (due soon)", html);
+    return outbox("DUE_SOON_REMINDER", user.getEmail(), "ToDo reminder (due soon)", html, true);
   }
 
   private String buildTodoCreatedText(AppUser user, Todo todo) {
@@ -76,21 +89,21 @@ public class MailService {
         + "Due: " + due + "\n";
   }
 
-  private void sendHtml(String to, String subject, String html) {
-    if (fromAddress == null || fromAddress.isBlank()) {
-      log.warn("skip html mail: from address missing");
-      return;
-    }
-    MimeMessage message = mailSender.createMimeMessage();
-    try {
-      MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
-      helper.setFrom(fromAddress);
-      helper.setTo(to);
-      helper.setSubject(subject);
-      helper.setText(html, true);
-      mailSender.send(message);
-    } catch (MessagingException ex) {
-      throw new IllegalStateException("Failed to send html mail", ex);
-    }
+  private void enqueue(String kind, String to, String subject, String body, boolean html) {
+    mailOutboxRepository.save(outbox(kind, to, subject, body, html));
+  }
+
+  private MailOutbox outbox(String kind, String to, String subject, String body, boolean html) {
+    LocalDateTime now = LocalDateTime.now();
+    return MailOutbox.builder()
+        .kind(kind)
+        .recipient(to)
+        .subject(subject)
+        .body(body)
+        .html(html)
+        .status(MailOutboxStatus.PENDING)
+        .nextAttemptAt(now)
+        .createdAt(now)
+        .build();
   }
 }
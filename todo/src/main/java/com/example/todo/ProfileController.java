@@ -20,12 +20,14 @@ public class ProfileController {
   private final AppUserRepository appUserRepository;
   private final TodoRepository todoRepository;
   private final GroupRepository groupRepository;
+  private final AppUserService appUserService;
 
   public ProfileController(AppUserRepository appUserRepository, TodoRepository todoRepository,
-      GroupRepository groupRepository) {
+      GroupRepository groupRepository, AppUserService appUserService) {
     this.appUserRepository = appUserRepository;
     this.todoRepository = todoRepository;
     this.groupRepository = groupRepository;
+    this.appUserService = appUserService;
   }
 
   @GetMapping("/profile")
@@ -128,7 +130,7 @@ public class ProfileController {
       List<Group> groups = groupRepository.findAllById(form.getGroupIds());
       user.setDefaultGroups(new java.util.HashSet<>(groups));
     }
-    appUserRepository.save(user);
+    appUserService.save(user);
     redirectAttributes.addFlashAttribute("successMessage", "Profile updated.");
     return "redirect:/profile";
   }
@@ -0,0 +1,206 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReferenceDataCache {
+
+  private static final List<String> SUPPORTED_LANGS = List.of("ja", "en", "zh");
+
+  private final CategoryRepository categoryRepository;
+  private final GroupRepository groupRepository;
+  private final MessageSource messageSource;
+  private final AtomicLong version = new AtomicLong();
+  private final Counter hits;
+  private final Counter misses;
+  private volatile Snapshot snapshot;
+
+  public ReferenceDataCache(CategoryRepository categoryRepository, GroupRepository groupRepository,
+      MessageSource messageSource, MeterRegistry meterRegistry) {
+    this.categoryRepository = categoryRepository;
+    this.groupRepository = groupRepository;
+    this.messageSource = messageSource;
+    this.hits = Counter.builder("todo.reference.cache")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    this.misses = Counter.builder("todo.reference.cache")
+        .tag("result", "miss")
+        .register(meterRegistry);
+    Gauge.builder("todo.reference.cache.version", version, AtomicLong::get)
+        .register(meterRegistry);
+  }
+
+  public List<Category> categories() {
+    return current().categories;
+  }
+
+  public List<Group> groups() {
+    return current().groups;
+  }
+
+  public Map<Long, String> categoryLabels(Locale locale) {
+    return current().localized(locale).categoryLabels;
+  }
+
+  public Map<Long, String> groupLabels(Locale locale) {
+    return current().localized(locale).groupLabels;
+  }
+
+  public String labelsTag(Long categoryId, Collection<Long> groupIds, Locale locale) {
+    Localized localized = current().localized(locale);
+    StringBuilder canonical = new StringBuilder();
+    appendField(canonical, locale.toLanguageTag());
+    if (categoryId != null) {
+      appendField(canonical, String.valueOf(categoryId));
+      appendField(canonical, localized.categoryLabels.get(categoryId));
+      appendField(canonical, categories().stream()
+          .filter(category -> categoryId.equals(category.getId()))
+          .map(Category::getColor)
+          .findFirst()
+          .orElse(null));
+    }
+    for (Long groupId : new TreeSet<>(groupIds)) {
+      appendField(canonical, String.valueOf(groupId));
+      appendField(canonical, localized.groupLabels.get(groupId));
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 8);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static void appendField(StringBuilder canonical, String value) {
+    String field = String.valueOf(value);
+    canonical.append(field.length()).append(':').append(field).append(';');
+  }
+
+  public List<Map<String, Object>> groupOptions(Locale locale) {
+    return current().localized(locale).groupOptions;
+  }
+
+  public List<GlobalModelAttributes.LangOption> langOptions(Locale locale) {
+    return current().localized(locale).langOptions;
+  }
+
+  public String langLabel(Locale locale) {
+    String code = locale.getLanguage();
+    return langOptions(locale).stream()
+        .filter(option -> option.code().equals(code))
+        .map(GlobalModelAttributes.LangOption::label)
+        .findFirst()
+        .orElseGet(() -> messageSource.getMessage("lang." + code, null, code, locale));
+  }
+
+  public void invalidate() {
+    version.incrementAndGet();
+    snapshot = null;
+  }
+
+  private Snapshot current() {
+    Snapshot cached = snapshot;
+    long expected = version.get();
+    if (cached != null && cached.version == expected) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    Snapshot loaded = new Snapshot(expected,
+        List.copyOf(categoryRepository.findAll()),
+        List.copyOf(groupRepository.findAllByOrderByTypeAscNameAsc()));
+    if (version.get() == expected) {
+      snapshot = loaded;
+    }
+    return loaded;
+  }
+
+  private final class Snapshot {
+    private final long version;
+    private final List<Category> categories;
+    private final List<Group> groups;
+    private final Map<Locale, Localized> localized = new ConcurrentHashMap<>();
+
+    private Snapshot(long version, List<Category> categories, List<Group> groups) {
+      this.version = version;
+      this.categories = categories;
+      this.groups = groups;
+    }
+
+    private Localized localized(Locale locale) {
+      return localized.computeIfAbsent(locale, this::buildLocalized);
+    }
+
+    private Localized buildLocalized(Locale locale) {
+      Map<Long, String> categoryLabels = new LinkedHashMap<>();
+      for (Category category : categories) {
+        if (category == null || category.getId() == null) {
+          continue;
+        }
+        categoryLabels.put(category.getId(),
+            messageSource.getMessage("category." + category.getId(), null, category.getName(), locale));
+      }
+      Map<Long, String> groupLabels = new LinkedHashMap<>();
+      List<Map<String, Object>> groupOptions = new ArrayList<>();
+      for (Group group : groups) {
+        if (group == null || group.getId() == null) {
+          continue;
+        }
+        String label = resolveGroupLabel(group, locale);
+        groupLabels.put(group.getId(), label);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", group.getId());
+        row.put("name", group.getName());
+        row.put("label", label);
+        row.put("type", group.getType() == null ? null : group.getType().name());
+        row.put("parentId", group.getParentId());
+        row.put("color", group.getColor());
+        groupOptions.add(Collections.unmodifiableMap(row));
+      }
+      List<GlobalModelAttributes.LangOption> langOptions = SUPPORTED_LANGS.stream()
+          .map(code -> new GlobalModelAttributes.LangOption(code,
+              messageSource.getMessage("lang." + code, null, code, locale)))
+          .toList();
+      return new Localized(
+          Collections.unmodifiableMap(categoryLabels),
+          Collections.unmodifiableMap(groupLabels),
+          List.copyOf(groupOptions),
+          langOptions);
+    }
+  }
+
+  private String resolveGroupLabel(Group group, Locale locale) {
+    String name = group.getName();
+    if (name == null || name.isBlank()) {
+      return "";
+    }
+    String slug = name.trim()
+        .toLowerCase(Locale.ROOT)
+        .replaceAll("[^a-z0-9]+", "_")
+        .replaceAll("^_+|_+$", "");
+    String key = slug.isEmpty() ? "group.name." + name.trim() : "group.name." + slug;
+    return messageSource.getMessage(key, null, name, locale);
+  }
+
+  private record Localized(Map<Long, String> categoryLabels, Map<Long, String> groupLabels,
+      List<Map<String, Object>> groupOptions, List<GlobalModelAttributes.LangOption> langOptions) {}
+}
@@ -0,0 +1,14 @@
+package com.example.todo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+@Data
+public class ReminderScheduleRow {
+
+  private Long todoId;
+  private Long userId;
+  private LocalDate dueDate;
+  private LocalDateTime fireAt;
+}
@@ -0,0 +1,105 @@
+package com.example.todo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReminderScheduleService {
+
+  private final TodoReminderMapper todoReminderMapper;
+  private final int leadDays;
+  private final LocalTime fireTime;
+  private final ZoneId zone;
+  private final boolean repeatDaily;
+
+  public ReminderScheduleService(TodoReminderMapper todoReminderMapper,
+      @Value("${app.reminder.lead-days:3}") int leadDays,
+      @Value("${app.reminder.fire-time:09:00}") LocalTime fireTime,
+      @Value("${app.reminder.zone:Asia/Tokyo}") ZoneId zone,
+      @Value("${app.reminder.repeat-daily:true}") boolean repeatDaily) {
+    this.todoReminderMapper = todoReminderMapper;
+    this.leadDays = leadDays;
+    this.fireTime = fireTime;
+    this.zone = zone;
+    this.repeatDaily = repeatDaily;
+  }
+
+  @EventListener
+  public void onTodoChanged(TodoChangedEvent event) {
+    refresh(event.scheduleChangedIds());
+  }
+
+  public void refresh(List<Long> todoIds) {
+    if (todoIds == null || todoIds.isEmpty()) {
+      return;
+    }
+    todoReminderMapper.deleteScheduleByTodoIds(todoIds);
+    LocalDateTime now = LocalDateTime.now();
+    List<ReminderScheduleRow> rows = new ArrayList<>();
+    for (ReminderScheduleRow row : todoReminderMapper.findScheduleCandidates(todoIds)) {
+      row.setFireAt(fireAt(row.getDueDate(), now));
+      if (row.getFireAt() != null) {
+        rows.add(row);
+      }
+    }
+    if (!rows.isEmpty()) {
+      todoReminderMapper.insertSchedule(rows);
+    }
+  }
+
+  public void remove(long todoId) {
+    todoReminderMapper.deleteScheduleByTodoIds(List.of(todoId));
+  }
+
+  public List<ReminderScheduleRow> nextAfterFiring(List<Todo> fired, LocalDateTime now) {
+    if (!repeatDaily) {
+      return List.of();
+    }
+    List<ReminderScheduleRow> rows = new ArrayList<>();
+    for (Todo todo : fired) {
+      LocalDateTime next = nextFireAt(todo.getDueDate(), now);
+      if (next != null) {
+        ReminderScheduleRow row = new ReminderScheduleRow();
+        row.setTodoId(todo.getId());
+        row.setUserId(todo.getUser().getId());
+        row.setDueDate(todo.getDueDate());
+        row.setFireAt(next);
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  LocalDateTime nextFireAt(LocalDate dueDate, LocalDateTime now) {
+    ZonedDateTime current = now.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone);
+    ZonedDateTime next = ZonedDateTime.of(current.toLocalDate(), fireTime, zone);
+    if (!next.isAfter(current)) {
+      next = next.plusDays(1);
+    }
+    if (next.toLocalDate().isAfter(dueDate)) {
+      return null;
+    }
+    return next.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+  }
+
+  LocalDateTime fireAt(LocalDate dueDate, LocalDateTime now) {
+    ZonedDateTime current = now.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone);
+    ZonedDateTime fire = ZonedDateTime.of(dueDate.minusDays(leadDays), fireTime, zone);
+    if (fire.isBefore(current)) {
+      ZonedDateTime today = ZonedDateTime.of(current.toLocalDate(), fireTime, zone);
+      fire = today.isBefore(current) ? today.plusDays(1) : today;
+      if (fire.toLocalDate().isAfter(dueDate)) {
+        return null;
+      }
+    }
+    return fire.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface SchedulerLockMapper {
+
+  int insert(@Param("name") String name, @Param("nodeId") String nodeId,
+      @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+  int acquire(@Param("name") String name, @Param("nodeId") String nodeId,
+      @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+  int release(@Param("name") String name, @Param("nodeId") String nodeId, @Param("until") LocalDateTime until);
+}
@@ -11,8 +11,12 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import java.time.LocalDate;
@@ -23,17 +27,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "todos")
+@NamedEntityGraph(
+    name = Todo.WITH_ASSOCIATIONS,
+    attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode(value = "groups", subgraph = "groups")
+    },
+    subgraphs = @NamedSubgraph(name = "groups", attributeNodes = @NamedAttributeNode("parent")))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Todo {
 
+  public static final String WITH_ASSOCIATIONS = "Todo.withAssociations";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+  @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, length = 50)
@@ -60,6 +76,7 @@ public class Todo {
   private AppUser user;
 
   @ManyToMany
+  @BatchSize(size = 50)
   @JoinTable(
       name = "todo_groups",
       joinColumns = @JoinColumn(name = "todo_id"),
@@ -1,10 +1,19 @@
 package com.example.todo;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,8 +23,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -23,51 +35,195 @@ import org.springframework.web.bind.annotation.RestController;
 public class TodoApiController {
 
   private final TodoService todoService;
-  private final AppUserRepository appUserRepository;
+  private final UserContextService userContextService;
+  private final TodoViewService todoViewService;
+  private final TodoBatchService todoBatchService;
+  private final TodoChangeStream todoChangeStream;
+  private final IdempotencyStore idempotencyStore;
+  private final ObjectMapper objectMapper;
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private static final String IDEMPOTENCY_REPLAYED_HEADER = "Idempotency-Replayed";
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
-  public TodoApiController(TodoService todoService, AppUserRepository appUserRepository) {
+  public TodoApiController(TodoService todoService, UserContextService userContextService,
+      TodoViewService todoViewService, TodoBatchService todoBatchService, TodoChangeStream todoChangeStream,
+      IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
     this.todoService = todoService;
-    this.appUserRepository = appUserRepository;
+    this.userContextService = userContextService;
+    this.todoViewService = todoViewService;
+    this.todoBatchService = todoBatchService;
+    this.todoChangeStream = todoChangeStream;
+    this.idempotencyStore = idempotencyStore;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping
-  @Operation(summary = "List todos", description = "Returns todos owned by the authenticated user")
-  public ResponseEntity<ApiResponse<List<Todo>>> list(@AuthenticationPrincipal UserDetails userDetails) {
+  @Operation(summary = "List todos", description = "Returns one keyset page of the todos visible to the authenticated user, "
+      + "filtered like the todo list screen. Pass meta.nextCursor back as cursor, together with the same filters, "
+      + "to read the next page. The total is counted over the whole filtered set and is only returned "
+      + "with withTotal=true. sort accepts createdAt, title, dueDate and status; relevance ordering is only "
+      + "offered by the todo list screen, and any other value falls back to createdAt")
+  public ResponseEntity<ApiResponse<List<TodoView>>> list(@RequestParam(required = false) String keyword,
+      @RequestParam(required = false) Long categoryId,
+      @RequestParam(required = false) Long groupId,
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String direction,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(defaultValue = "false") boolean withTotal,
+      @AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    int pageSize = limit != null ? limit : (size != null ? size : DEFAULT_PAGE_SIZE);
+    CursorPage<TodoView> slice = todoViewService.findSlice(userId, keyword, sort, direction, categoryId, groupId,
+        status, cursor, pageSize, withTotal, LocaleContextHolder.getLocale());
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (slice.total() != null) {
+      response.header(TOTAL_COUNT_HEADER, String.valueOf(slice.total()));
+    }
+    if (slice.hasNext()) {
+      response.header(NEXT_CURSOR_HEADER, slice.nextCursor());
+    }
+    ApiResponse.PageMeta meta = new ApiResponse.PageMeta(slice.content().size(), slice.hasNext(),
+        slice.nextCursor(), slice.total());
+    return response.body(ApiResponse.ok("一覧取得に成功しました。", slice.content(), meta));
+  }
+
+  @GetMapping("/changes")
+  @Operation(summary = "List todo changes", description = "Returns the visible todos whose updated_at moved past "
+      + "the since watermark, tombstones for the ones deleted since then, and the watermark for the next call. "
+      + "Without since, every visible todo is returned")
+  public ResponseEntity<ApiResponse<TodoChanges>> changes(@RequestParam(required = false) String since,
+      @RequestParam(defaultValue = "200") int limit,
+      @AuthenticationPrincipal UserDetails userDetails) {
     long userId = requireUserId(userDetails);
-    List<Todo> todos = todoService.findAll(userId);
-    return ResponseEntity.ok(ApiResponse.ok("一覧取得に成功しました。", todos));
+    TodoChanges changes = todoViewService.findChanges(userId, since, limit, LocaleContextHolder.getLocale());
+    return ResponseEntity.ok(ApiResponse.ok("差分取得に成功しました。", changes));
+  }
+
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Stream todo changes", description = "Server-Sent Events stream of changes to todos visible to "
+      + "the authenticated user. Each \"todo\" event carries the change type and todo ids; fetch the todos with "
+      + "/api/todos/changes or /api/todos/{id}. A \"resync\" event means events were dropped and the stream closes")
+  public SseEmitter stream(@AuthenticationPrincipal UserDetails userDetails) {
+    return todoChangeStream.subscribe(requireUserId(userDetails));
   }
 
   @GetMapping("/{id}")
-  @Operation(summary = "Get todo by id", description = "Returns a single todo if it belongs to the authenticated user")
-  public ResponseEntity<ApiResponse<Todo>> find(@PathVariable("id") long id,
+  @Operation(summary = "Get todo by id", description = "Returns a single todo if it is visible to the authenticated user. "
+      + "The ETag is derived from id, version and the todo's own category/group labels; a matching If-None-Match returns 304 without a body")
+  public ResponseEntity<ApiResponse<TodoView>> find(@PathVariable("id") long id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
       @AuthenticationPrincipal UserDetails userDetails) {
-    Todo todo = todoService.findById(id).orElse(null);
-    if (todo == null) {
-      return ResponseEntity.status(HttpStatus.NOT_FOUND)
-          .body(ApiResponse.error("ToDoが見つかりません。"));
+    long userId = requireUserId(userDetails);
+    Locale locale = LocaleContextHolder.getLocale();
+    String etag = todoViewService.findVisibleEtag(id, userId, locale).orElse(null);
+    if (etag == null) {
+      return todoService.findById(id).isPresent()
+          ? ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("アクセス権限がありません。"))
+          : ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("ToDoが見つかりません。"));
     }
-    if (!isOwner(todo, requireUserId(userDetails))) {
-      return ResponseEntity.status(HttpStatus.FORBIDDEN)
-          .body(ApiResponse.error("アクセス権限がありません。"));
+    if (TodoEtags.matchesIfNoneMatch(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
     }
-    return ResponseEntity.ok(ApiResponse.ok("取得に成功しました。", todo));
+    TodoView todo = todoViewService.findVisible(id, userId, locale).orElse(null);
+    if (todo == null) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("ToDoが見つかりません。"));
+    }
+    return ResponseEntity.ok()
+        .eTag(todoViewService.etag(todo, locale))
+        .cacheControl(REVALIDATE)
+        .body(ApiResponse.ok("取得に成功しました。", todo));
   }
 
   @PostMapping
-  @Operation(summary = "Create todo", description = "Creates a new todo for the authenticated user")
-  public ResponseEntity<ApiResponse<Todo>> create(@Valid @RequestBody TodoForm form,
+  @Operation(summary = "Create todo", description = "Creates a new todo for the authenticated user. "
+      + "With an Idempotency-Key header a retried request returns the original response instead of creating again; "
+      + "reusing a key for a different body returns 422 and a key still being processed returns 409")
+  public ResponseEntity<?> create(@Valid @RequestBody TodoForm form,
+      @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
       @AuthenticationPrincipal UserDetails userDetails) {
     long userId = requireUserId(userDetails);
-    Todo created = todoService.create(userId, form);
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return created(todoService.create(userId, form));
+    }
+    if (idempotencyKey.length() > 100) {
+      return ResponseEntity.badRequest().body(ApiResponse.error("Idempotency-Keyが長すぎます。"));
+    }
+    String key = "api:" + userId + ":" + idempotencyKey;
+    String fingerprint = TodoService.fingerprint(form);
+    Optional<IdempotencyRecord> existing = idempotencyStore.claim(key, fingerprint);
+    if (existing.isPresent()) {
+      return replay(existing.get(), fingerprint);
+    }
+    try {
+      Todo saved = todoService.create(userId, form, false);
+      ResponseEntity<ApiResponse<TodoView>> response = created(saved);
+      idempotencyStore.complete(key, response.getStatusCode().value(), toJson(response.getBody()),
+          response.getHeaders().getETag(), saved.getId());
+      return response;
+    } catch (RuntimeException ex) {
+      idempotencyStore.release(key);
+      throw ex;
+    }
+  }
+
+  private String toJson(Object body) {
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private ResponseEntity<ApiResponse<TodoView>> created(Todo created) {
     return ResponseEntity.status(HttpStatus.CREATED)
-        .body(ApiResponse.ok("作成に成功しました。", created));
+        .eTag(todoViewService.etag(created, LocaleContextHolder.getLocale()))
+        .body(ApiResponse.ok("作成に成功しました。",
+            todoViewService.toView(created, LocaleContextHolder.getLocale())));
+  }
+
+  private ResponseEntity<?> replay(IdempotencyRecord record, String fingerprint) {
+    if (!fingerprint.equals(record.getFingerprint())) {
+      return ResponseEntity.unprocessableEntity()
+          .body(ApiResponse.error("Idempotency-Keyが別のリクエストで使用されています。"));
+    }
+    if (!record.isCompleted()) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(ApiResponse.error("同じIdempotency-Keyのリクエストを処理中です。"));
+    }
+    return ResponseEntity.status(record.getStatusCode())
+        .eTag(record.getEtag())
+        .header(IDEMPOTENCY_REPLAYED_HEADER, "true")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(record.getResponseBody());
+  }
+
+  @PostMapping("/batch")
+  @Operation(summary = "Create or update todos in bulk", description = "Validates every item first and writes nothing "
+      + "if any item is invalid; valid items are then reported as SKIPPED. The author is always the authenticated "
+      + "user. Items without id are created, items with id update a todo owned by the user. "
+      + "Returns one result per item in request order")
+  public ResponseEntity<ApiResponse<List<TodoBatchResult>>> batch(@RequestBody List<TodoForm> forms,
+      @AuthenticationPrincipal UserDetails userDetails) {
+    long userId = requireUserId(userDetails);
+    List<TodoBatchResult> results = todoBatchService.apply(userId, forms);
+    if (results.stream().anyMatch(result -> result.status() == TodoBatchResult.Status.INVALID)) {
+      return ResponseEntity.badRequest().body(ApiResponse.error("入力内容に誤りがあります。", results));
+    }
+    return ResponseEntity.ok(ApiResponse.ok("一括登録に成功しました。", results));
   }
 
   @PutMapping("/{id}")
-  @Operation(summary = "Update todo", description = "Updates a todo if it belongs to the authenticated user")
-  public ResponseEntity<ApiResponse<Todo>> update(@PathVariable("id") long id,
+  @Operation(summary = "Update todo", description = "Updates a todo if it belongs to the authenticated user. "
+      + "With If-Match the update only applies to that ETag and returns 412 otherwise")
+  public ResponseEntity<ApiResponse<TodoView>> update(@PathVariable("id") long id,
       @Valid @RequestBody TodoForm form,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo existing = todoService.findById(id).orElse(null);
     if (existing == null) {
@@ -78,13 +234,32 @@ public class TodoApiController {
       return ResponseEntity.status(HttpStatus.FORBIDDEN)
           .body(ApiResponse.error("アクセス権限がありません。"));
     }
-    Todo updated = todoService.update(id, form);
-    return ResponseEntity.ok(ApiResponse.ok("更新に成功しました。", updated));
+    if (ifMatch != null) {
+      if (!TodoEtags.matchesIfMatch(ifMatch, id, existing.getVersion())) {
+        return preconditionFailed();
+      }
+      form.setVersion(existing.getVersion());
+    }
+    Todo updated;
+    try {
+      updated = todoService.update(id, form);
+    } catch (OptimisticLockingFailureException ex) {
+      if (ifMatch != null) {
+        return preconditionFailed();
+      }
+      throw ex;
+    }
+    return ResponseEntity.ok()
+        .eTag(todoViewService.etag(updated, LocaleContextHolder.getLocale()))
+        .body(ApiResponse.ok("更新に成功しました。",
+            todoViewService.toView(updated, LocaleContextHolder.getLocale())));
   }
 
   @DeleteMapping("/{id}")
-  @Operation(summary = "Delete todo", description = "Deletes a todo if it belongs to the authenticated user")
+  @Operation(summary = "Delete todo", description = "Deletes a todo if it belongs to the authenticated user. "
+      + "With If-Match the delete only applies to that ETag and returns 412 otherwise")
   public ResponseEntity<ApiResponse<Void>> delete(@PathVariable("id") long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo existing = todoService.findById(id).orElse(null);
     if (existing == null) {
@@ -95,16 +270,26 @@ public class TodoApiController {
       return ResponseEntity.status(HttpStatus.FORBIDDEN)
           .body(ApiResponse.error("アクセス権限がありません。"));
     }
-    todoService.deleteById(id);
+    if (ifMatch == null) {
+      todoService.deleteById(id);
+    } else if (!TodoEtags.matchesIfMatch(ifMatch, id, existing.getVersion())
+        || !todoService.deleteById(id, existing.getVersion())) {
+      return preconditionFailed();
+    }
     return ResponseEntity.ok(ApiResponse.ok("削除に成功しました。", null));
   }
 
+  private static <T> ResponseEntity<ApiResponse<T>> preconditionFailed() {
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+        .body(ApiResponse.error("他のユーザーが更新しました。最新の内容を取得してください。"));
+  }
+
   private long requireUserId(UserDetails userDetails) {
     if (userDetails == null) {
       throw new org.springframework.web.server.ResponseStatusException(HttpStatus.UNAUTHORIZED);
     }
-    return appUserRepository.findByUsername(userDetails.getUsername())
-        .map(AppUser::getId)
+    return userContextService.findByUsername(userDetails.getUsername())
+        .map(UserContext::id)
         .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.UNAUTHORIZED));
   }
 
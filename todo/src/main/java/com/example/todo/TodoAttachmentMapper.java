@@ -7,8 +7,6 @@ import org.apache.ibatis.annotations.Param;
 @Mapper
 public interface TodoAttachmentMapper {
 
-  int insert(TodoAttachment attachment);
-
   TodoAttachment findById(@Param("id") long id);
 
   List<TodoAttachment> findByTodoId(@Param("todoId") long todoId);
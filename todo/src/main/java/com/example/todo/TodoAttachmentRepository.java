@@ -0,0 +1,6 @@
+package com.example.todo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TodoAttachmentRepository extends JpaRepository<TodoAttachment, Long> {
+}
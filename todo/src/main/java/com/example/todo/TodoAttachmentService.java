@@ -1,6 +1,7 @@
 package com.example.todo;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,11 +11,13 @@ import org.springframework.web.multipart.MultipartFile;
 public class TodoAttachmentService {
 
   private final TodoAttachmentMapper todoAttachmentMapper;
+  private final TodoAttachmentRepository todoAttachmentRepository;
   private final FileStorageService fileStorageService;
 
   public TodoAttachmentService(TodoAttachmentMapper todoAttachmentMapper,
-      FileStorageService fileStorageService) {
+      TodoAttachmentRepository todoAttachmentRepository, FileStorageService fileStorageService) {
     this.todoAttachmentMapper = todoAttachmentMapper;
+    this.todoAttachmentRepository = todoAttachmentRepository;
     this.fileStorageService = fileStorageService;
   }
 
@@ -29,8 +32,7 @@ public class TodoAttachmentService {
         .size(stored.size())
         .uploadedAt(LocalDateTime.now())
         .build();
-    todoAttachmentMapper.insert(attachment);
-    return attachment;
+    return todoAttachmentRepository.save(attachment);
   }
 
   @Transactional
@@ -39,6 +41,7 @@ public class TodoAttachmentService {
       return;
     }
     int count = form.getAttachmentStoredFilenames().size();
+    List<TodoAttachment> attachments = new ArrayList<>(count);
     for (int i = 0; i < count; i++) {
       String stored = form.getAttachmentStoredFilenames().get(i);
       if (stored == null || stored.isBlank()) {
@@ -55,8 +58,9 @@ public class TodoAttachmentService {
           .size(size == null ? 0L : size)
           .uploadedAt(LocalDateTime.now())
           .build();
-      todoAttachmentMapper.insert(attachment);
+      attachments.add(attachment);
     }
+    todoAttachmentRepository.saveAll(attachments);
   }
 
   private String safeListValue(List<String> values, int index) {
@@ -0,0 +1,23 @@
+package com.example.todo;
+
+import java.util.List;
+
+public record TodoBatchResult(int index, Long id, Status status, List<String> errors) {
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    CONFLICT,
+    NOT_FOUND,
+    INVALID,
+    SKIPPED
+  }
+
+  public static TodoBatchResult of(int index, Long id, Status status) {
+    return new TodoBatchResult(index, id, status, List.of());
+  }
+
+  public boolean isApplied() {
+    return status == Status.CREATED || status == Status.UPDATED;
+  }
+}
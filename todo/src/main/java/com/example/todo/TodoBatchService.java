@@ -0,0 +1,342 @@
+package com.example.todo;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class TodoBatchService {
+
+  private static final String INSERT_TODO = "INSERT INTO todos (author, title, description, due_date, priority, "
+      + "category_id, user_id, status, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+  private static final String UPDATE_TODO = "UPDATE todos SET title = ?, description = ?, due_date = ?, priority = ?, "
+      + "category_id = ?, status = ?, updated_at = ?, version = version + 1 "
+      + "WHERE id = ? AND user_id = ? AND version = ? AND deleted_at IS NULL";
+  private static final String DELETE_TODO_GROUPS = "DELETE FROM todo_groups WHERE todo_id = ?";
+  private static final String INSERT_TODO_GROUP = "INSERT INTO todo_groups (todo_id, group_id) VALUES (?, ?)";
+  private static final String PERSONAL_GROUP_NAME = "個人";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Validator validator;
+  private final UserContextService userContextService;
+  private final ReferenceDataCache referenceDataCache;
+  private final TodoVisibilityService todoVisibilityService;
+  private final AuditLogService auditLogService;
+  private final MailService mailService;
+  private final AppUserRepository appUserRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int maxItems;
+
+  public TodoBatchService(JdbcTemplate jdbcTemplate, Validator validator, UserContextService userContextService,
+      ReferenceDataCache referenceDataCache, TodoVisibilityService todoVisibilityService,
+      AuditLogService auditLogService, MailService mailService, AppUserRepository appUserRepository,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${app.todo.batch.max-items:500}") int maxItems) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.validator = validator;
+    this.userContextService = userContextService;
+    this.referenceDataCache = referenceDataCache;
+    this.todoVisibilityService = todoVisibilityService;
+    this.auditLogService = auditLogService;
+    this.mailService = mailService;
+    this.appUserRepository = appUserRepository;
+    this.eventPublisher = eventPublisher;
+    this.maxItems = maxItems;
+  }
+
+  @Transactional(rollbackFor = Exception.class)
+  public List<TodoBatchResult> apply(long userId, List<TodoForm> forms) {
+    if (forms == null || forms.isEmpty()) {
+      throw new BusinessException("登録するToDoがありません。");
+    }
+    if (forms.size() > maxItems) {
+      throw new BusinessException("一度に登録できるToDoは" + maxItems + "件までです。");
+    }
+    UserContext user = userContextService.findById(userId)
+        .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+
+    List<TodoBatchResult> validated = validate(user, forms);
+    if (validated.stream().anyMatch(result -> result.status() == TodoBatchResult.Status.INVALID)) {
+      return validated;
+    }
+
+    Map<Long, OwnedTodo> owned = loadOwned(userId, forms);
+    Set<Long> categoryIds = referenceDataCache.categories().stream().map(Category::getId).collect(Collectors.toSet());
+    Set<Long> groupIds = referenceDataCache.groups().stream().map(Group::getId).collect(Collectors.toSet());
+    Long personalGroupId = referenceDataCache.groups().stream()
+        .filter(group -> group.getType() == GroupType.PROJECT && PERSONAL_GROUP_NAME.equalsIgnoreCase(group.getName()))
+        .map(Group::getId)
+        .findFirst()
+        .orElse(null);
+
+    TodoBatchResult[] results = new TodoBatchResult[forms.size()];
+    List<Integer> inserts = new ArrayList<>();
+    List<Integer> updates = new ArrayList<>();
+    for (int i = 0; i < forms.size(); i++) {
+      TodoForm form = forms.get(i);
+      if (form.getId() == null) {
+        inserts.add(i);
+      } else if (owned.containsKey(form.getId())) {
+        updates.add(i);
+      } else {
+        results[i] = TodoBatchResult.of(i, form.getId(), TodoBatchResult.Status.NOT_FOUND);
+      }
+    }
+
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    List<Long> createdIds = insertTodos(user, forms, inserts, categoryIds, now);
+    Map<Long, Set<Long>> groupsByTodo = new HashMap<>();
+    for (int n = 0; n < inserts.size(); n++) {
+      int index = inserts.get(n);
+      Long id = createdIds.get(n);
+      results[index] = TodoBatchResult.of(index, id, TodoBatchResult.Status.CREATED);
+      List<Long> requested = forms.get(index).getGroupIds();
+      groupsByTodo.put(id, (requested == null || requested.isEmpty()) && !user.groupIds().isEmpty()
+          ? user.groupIds()
+          : resolveGroupIds(requested, groupIds, personalGroupId));
+    }
+
+    int[] updated = updateTodos(userId, forms, updates, owned, categoryIds, now);
+    List<Long> updatedIds = new ArrayList<>();
+    List<Long> rescheduledIds = new ArrayList<>();
+    for (int n = 0; n < updates.size(); n++) {
+      int index = updates.get(n);
+      TodoForm form = forms.get(index);
+      if (updated[n] == 0) {
+        results[index] = TodoBatchResult.of(index, form.getId(), TodoBatchResult.Status.CONFLICT);
+        continue;
+      }
+      results[index] = TodoBatchResult.of(index, form.getId(), TodoBatchResult.Status.UPDATED);
+      updatedIds.add(form.getId());
+      if (owned.get(form.getId()).scheduleChangedBy(form)) {
+        rescheduledIds.add(form.getId());
+      }
+      groupsByTodo.put(form.getId(), resolveGroupIds(form.getGroupIds(), groupIds, personalGroupId));
+    }
+
+    replaceTodoGroups(updatedIds, groupsByTodo);
+    List<Long> changedIds = new ArrayList<>(createdIds);
+    changedIds.addAll(updatedIds);
+    todoVisibilityService.refreshTodos(changedIds);
+    auditLogService.recordAll(auditEntries(userId, createdIds, updatedIds, now));
+    if (!createdIds.isEmpty()) {
+      eventPublisher.publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.CREATED, createdIds));
+    }
+    if (!updatedIds.isEmpty()) {
+      eventPublisher.publishEvent(TodoChangedEvent.updated(updatedIds, rescheduledIds));
+    }
+    if (!createdIds.isEmpty()) {
+      List<Todo> created = inserts.stream()
+          .map(index -> Todo.builder()
+              .id(results[index].id())
+              .title(forms.get(index).getTitle())
+              .dueDate(forms.get(index).getDueDate())
+              .build())
+          .toList();
+      appUserRepository.findById(userId).ifPresent(owner -> mailService.sendTodosCreated(owner, created));
+    }
+    return List.of(results);
+  }
+
+  private List<TodoBatchResult> validate(UserContext user, List<TodoForm> forms) {
+    List<TodoBatchResult> results = new ArrayList<>(forms.size());
+    for (int i = 0; i < forms.size(); i++) {
+      TodoForm form = forms.get(i);
+      if (form == null) {
+        results.add(new TodoBatchResult(i, null, TodoBatchResult.Status.INVALID, List.of("ToDoが指定されていません。")));
+        continue;
+      }
+      form.setAuthor(user.username());
+      Set<ConstraintViolation<TodoForm>> violations = validator.validate(form);
+      if (violations.isEmpty()) {
+        results.add(TodoBatchResult.of(i, form.getId(), TodoBatchResult.Status.SKIPPED));
+      } else {
+        List<String> errors = violations.stream()
+            .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .toList();
+        results.add(new TodoBatchResult(i, form.getId(), TodoBatchResult.Status.INVALID, errors));
+      }
+    }
+    return results;
+  }
+
+  private Map<Long, OwnedTodo> loadOwned(long userId, List<TodoForm> forms) {
+    List<Long> ids = forms.stream().map(TodoForm::getId).filter(id -> id != null).distinct().toList();
+    Map<Long, OwnedTodo> owned = new HashMap<>();
+    if (ids.isEmpty()) {
+      return owned;
+    }
+    String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+    List<Object> args = new ArrayList<>(ids);
+    args.add(userId);
+    jdbcTemplate.query("SELECT id, version, due_date, status FROM todos WHERE id IN (" + placeholders + ") "
+            + "AND user_id = ? AND deleted_at IS NULL",
+        rs -> {
+          owned.put(rs.getLong("id"), new OwnedTodo(rs.getLong("version"),
+              rs.getObject("due_date", LocalDate.class), rs.getString("status")));
+        }, args.toArray());
+    return owned;
+  }
+
+  private List<Long> insertTodos(UserContext user, List<TodoForm> forms, List<Integer> indexes,
+      Set<Long> categoryIds, LocalDateTime now) {
+    if (indexes.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_TODO, new String[] {"id"})) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (int index : indexes) {
+          TodoForm form = forms.get(index);
+          ps.setString(1, user.username());
+          ps.setString(2, form.getTitle());
+          ps.setString(3, form.getDetail());
+          ps.setObject(4, form.getDueDate());
+          ps.setString(5, priorityOf(form).name());
+          setNullableLong(ps, 6, categoryOf(form, categoryIds));
+          ps.setLong(7, user.id());
+          ps.setString(8, form.getStatus() == null ? null : form.getStatus().name());
+          ps.setTimestamp(9, timestamp);
+          ps.setTimestamp(10, timestamp);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+        List<Long> ids = new ArrayList<>(indexes.size());
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+          while (keys.next()) {
+            ids.add(keys.getLong(1));
+          }
+        }
+        if (ids.size() != indexes.size()) {
+          throw new IllegalStateException("Generated keys mismatch: " + ids.size() + " != " + indexes.size());
+        }
+        return ids;
+      }
+    });
+  }
+
+  private int[] updateTodos(long userId, List<TodoForm> forms, List<Integer> indexes, Map<Long, OwnedTodo> owned,
+      Set<Long> categoryIds, LocalDateTime now) {
+    if (indexes.isEmpty()) {
+      return new int[0];
+    }
+    Timestamp timestamp = Timestamp.valueOf(now);
+    int[] counts = jdbcTemplate.batchUpdate(UPDATE_TODO, indexes.stream().map(index -> {
+      TodoForm form = forms.get(index);
+      Long expectedVersion = form.getVersion() != null ? form.getVersion() : owned.get(form.getId()).version();
+      return new Object[] {form.getTitle(), form.getDetail(), form.getDueDate(), priorityOf(form).name(),
+          categoryOf(form, categoryIds), form.getStatus() == null ? null : form.getStatus().name(), timestamp,
+          form.getId(), userId, expectedVersion};
+    }).toList(), new int[] {Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+        Types.TIMESTAMP, Types.BIGINT, Types.BIGINT, Types.BIGINT});
+    List<Integer> unknown = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == Statement.SUCCESS_NO_INFO) {
+        unknown.add(i);
+      }
+    }
+    if (!unknown.isEmpty()) {
+      Set<Long> applied = findAppliedUpdates(userId, unknown.stream()
+          .map(i -> forms.get(indexes.get(i)).getId())
+          .toList(), timestamp);
+      unknown.forEach(i -> counts[i] = applied.contains(forms.get(indexes.get(i)).getId()) ? 1 : 0);
+    }
+    return counts;
+  }
+
+  private Set<Long> findAppliedUpdates(long userId, List<Long> ids, Timestamp timestamp) {
+    String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+    List<Object> args = new ArrayList<>(ids);
+    args.add(userId);
+    args.add(timestamp);
+    return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM todos WHERE id IN (" + placeholders + ") "
+        + "AND user_id = ? AND updated_at = ? AND deleted_at IS NULL", Long.class, args.toArray()));
+  }
+
+  private void replaceTodoGroups(List<Long> updatedIds, Map<Long, Set<Long>> groupsByTodo) {
+    if (!updatedIds.isEmpty()) {
+      jdbcTemplate.batchUpdate(DELETE_TODO_GROUPS, updatedIds.stream().map(id -> new Object[] {id}).toList());
+    }
+    List<Object[]> links = new ArrayList<>();
+    groupsByTodo.forEach((todoId, groups) -> groups.forEach(groupId -> links.add(new Object[] {todoId, groupId})));
+    if (!links.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_TODO_GROUP, links);
+    }
+  }
+
+  private List<AuditLog> auditEntries(long userId, List<Long> createdIds, List<Long> updatedIds, LocalDateTime now) {
+    List<AuditLog> entries = new ArrayList<>(createdIds.size() + updatedIds.size());
+    createdIds.forEach(id -> entries.add(AuditLog.builder()
+        .action("TODO_CREATE")
+        .targetType("Todo")
+        .targetId(String.valueOf(id))
+        .detail("todoId=" + id + ", userId=" + userId + ", batch=true")
+        .createdAt(now)
+        .build()));
+    updatedIds.forEach(id -> entries.add(AuditLog.builder()
+        .action("TODO_UPDATE")
+        .targetType("Todo")
+        .targetId(String.valueOf(id))
+        .detail("todoId=" + id + ", batch=true")
+        .createdAt(now)
+        .build()));
+    return entries;
+  }
+
+  private Set<Long> resolveGroupIds(List<Long> requested, Set<Long> knownGroupIds, Long personalGroupId) {
+    if (requested == null || requested.isEmpty()) {
+      return personalGroupId == null ? Set.of() : Set.of(personalGroupId);
+    }
+    return requested.stream()
+        .filter(knownGroupIds::contains)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  private Priority priorityOf(TodoForm form) {
+    return form.getPriority() != null ? form.getPriority() : Priority.MEDIUM;
+  }
+
+  private Long categoryOf(TodoForm form, Set<Long> categoryIds) {
+    return form.getCategoryId() != null && categoryIds.contains(form.getCategoryId()) ? form.getCategoryId() : null;
+  }
+
+  private void setNullableLong(PreparedStatement ps, int index, Long value) throws java.sql.SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.BIGINT);
+    } else {
+      ps.setLong(index, value);
+    }
+  }
+
+  private record OwnedTodo(long version, LocalDate dueDate, String status) {
+
+    boolean scheduleChangedBy(TodoForm form) {
+      return !Objects.equals(dueDate, form.getDueDate())
+          || !Objects.equals(status, form.getStatus() == null ? null : form.getStatus().name());
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.example.todo;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Component
+public class TodoChangeStream {
+
+  private static final Logger log = LoggerFactory.getLogger(TodoChangeStream.class);
+
+  private final TodoVisibilityMapper todoVisibilityMapper;
+  private final int bufferSize;
+  private final int maxPerUser;
+  private final Duration timeout;
+  private final ThreadPoolTaskExecutor executor;
+  private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+  public TodoChangeStream(TodoVisibilityMapper todoVisibilityMapper,
+      @Value("${app.todo.stream.buffer-size:64}") int bufferSize,
+      @Value("${app.todo.stream.max-per-user:5}") int maxPerUser,
+      @Value("${app.todo.stream.timeout:30m}") Duration timeout,
+      @Value("${app.todo.stream.threads:2}") int threads) {
+    this.todoVisibilityMapper = todoVisibilityMapper;
+    this.bufferSize = bufferSize;
+    this.maxPerUser = maxPerUser;
+    this.timeout = timeout;
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(1000);
+    executor.setThreadNamePrefix("todo-stream-");
+    executor.initialize();
+  }
+
+  public synchronized SseEmitter subscribe(long userId) {
+    Set<Subscription> userSubscriptions = subscriptions.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>());
+    if (userSubscriptions.size() >= maxPerUser) {
+      throw new TooManySubscriptionsException("userId=" + userId);
+    }
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    Subscription subscription = new Subscription(userId, emitter);
+    userSubscriptions.add(subscription);
+    emitter.onCompletion(() -> remove(subscription));
+    emitter.onTimeout(() -> remove(subscription));
+    emitter.onError(ex -> remove(subscription));
+    subscription.offer(SseEmitter.event().name("ready").data("ok"));
+    return emitter;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onTodoChanged(TodoChangedEvent event) {
+    if (subscriptions.isEmpty() || event.todoIds() == null || event.todoIds().isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> fanOut(event));
+    } catch (TaskRejectedException ex) {
+      log.warn("todo stream fan-out rejected type={} todoIds={}", event.type(), event.todoIds().size());
+    }
+  }
+
+  private void fanOut(TodoChangedEvent event) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    List<Long> userIds = new ArrayList<>(subscriptions.keySet());
+    Map<Long, List<Long>> todoIdsByUser = new LinkedHashMap<>();
+    for (TodoVisibilityRow row : todoVisibilityMapper.findByTodoIdsAndUserIds(event.todoIds(), userIds)) {
+      todoIdsByUser.computeIfAbsent(row.getUserId(), id -> new ArrayList<>()).add(row.getTodoId());
+    }
+    todoIdsByUser.forEach((userId, todoIds) -> {
+      TodoChangedEvent visible = new TodoChangedEvent(event.type(), todoIds);
+      for (Subscription subscription : subscriptions.getOrDefault(userId, Set.of())) {
+        subscription.offer(SseEmitter.event().name("todo").data(visible, MediaType.APPLICATION_JSON));
+      }
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${app.todo.stream.heartbeat:PT25S}")
+  public void heartbeat() {
+    subscriptions.values().forEach(userSubscriptions -> userSubscriptions
+        .forEach(subscription -> subscription.offer(SseEmitter.event().comment("keepalive"))));
+  }
+
+  int subscriberCount(long userId) {
+    return subscriptions.getOrDefault(userId, Set.of()).size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::close));
+    executor.shutdown();
+  }
+
+  private synchronized void remove(Subscription subscription) {
+    subscription.closed.set(true);
+    subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+      userSubscriptions.remove(subscription);
+      return userSubscriptions.isEmpty() ? null : userSubscriptions;
+    });
+  }
+
+  private final class Subscription {
+    private final long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean overflowed;
+
+    private Subscription(long userId, SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    private void offer(SseEmitter.SseEventBuilder event) {
+      if (closed.get() || overflowed) {
+        return;
+      }
+      if (!buffer.offer(event)) {
+        // The client is not keeping up: drop what is queued and tell it to resync via /api/todos/changes.
+        overflowed = true;
+        buffer.clear();
+        buffer.offer(SseEmitter.event().name("resync").data("overflow"));
+        log.info("todo stream buffer overflow userId={}", userId);
+      }
+      schedule();
+    }
+
+    private void schedule() {
+      if (!draining.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        executor.execute(this::drain);
+      } catch (TaskRejectedException ex) {
+        draining.set(false);
+        close();
+      }
+    }
+
+    private void drain() {
+      try {
+        SseEmitter.SseEventBuilder event;
+        while (!closed.get() && (event = buffer.poll()) != null) {
+          emitter.send(event);
+        }
+        if (overflowed) {
+          close();
+        }
+      } catch (IOException | IllegalStateException ex) {
+        remove(this);
+      } finally {
+        draining.set(false);
+      }
+      if (!closed.get() && !buffer.isEmpty()) {
+        schedule();
+      }
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        emitter.complete();
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.todo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+
+public record TodoChangedEvent(Type type, List<Long> todoIds, @JsonIgnore List<Long> scheduleChangedIds) {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESTORED
+  }
+
+  public TodoChangedEvent(Type type, List<Long> todoIds) {
+    this(type, todoIds, todoIds);
+  }
+
+  public static TodoChangedEvent of(Type type, Long... todoIds) {
+    return new TodoChangedEvent(type, List.of(todoIds));
+  }
+
+  public static TodoChangedEvent updated(List<Long> todoIds, List<Long> scheduleChangedIds) {
+    return new TodoChangedEvent(Type.UPDATED, todoIds, scheduleChangedIds);
+  }
+}
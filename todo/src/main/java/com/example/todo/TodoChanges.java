@@ -0,0 +1,9 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TodoChanges(List<TodoView> changed, List<Deleted> deleted, String watermark, boolean hasMore) {
+
+  public record Deleted(long id, LocalDateTime deletedAt) {}
+}
@@ -1,23 +1,24 @@
 package com.example.todo;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.regex.Pattern;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.core.io.Resource;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -37,8 +38,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.bind.support.SessionStatus;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
@@ -47,25 +50,29 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class TodoController {
 
   private final TodoService todoService;
-  private final CategoryRepository categoryRepository;
-  private final AppUserRepository appUserRepository;
+  private final UserContextService userContextService;
   private final TodoAttachmentService todoAttachmentService;
   private final FileStorageService fileStorageService;
   private final MessageSource messageSource;
-  private final GroupRepository groupRepository;
+  private final ReferenceDataCache referenceDataCache;
+  private final TodoCsvWriter todoCsvWriter;
+  private final TodoListModel todoListModel;
+  private final IdempotencyStore idempotencyStore;
   private static final Pattern STORED_NAME_PATTERN = Pattern.compile("^[a-fA-F0-9]{32}.*$");
 
-  public TodoController(TodoService todoService, CategoryRepository categoryRepository,
-      AppUserRepository appUserRepository, TodoAttachmentService todoAttachmentService,
-      FileStorageService fileStorageService, MessageSource messageSource,
-      GroupRepository groupRepository) {
+  public TodoController(TodoService todoService, UserContextService userContextService,
+      TodoAttachmentService todoAttachmentService, FileStorageService fileStorageService,
+      MessageSource messageSource, ReferenceDataCache referenceDataCache,
+      TodoCsvWriter todoCsvWriter, TodoListModel todoListModel, IdempotencyStore idempotencyStore) {
     this.todoService = todoService;
-    this.categoryRepository = categoryRepository;
-    this.appUserRepository = appUserRepository;
+    this.userContextService = userContextService;
     this.todoAttachmentService = todoAttachmentService;
     this.fileStorageService = fileStorageService;
     this.messageSource = messageSource;
-    this.groupRepository = groupRepository;
+    this.referenceDataCache = referenceDataCache;
+    this.todoCsvWriter = todoCsvWriter;
+    this.todoListModel = todoListModel;
+    this.idempotencyStore = idempotencyStore;
   }
 
   private String msg(String code) {
@@ -73,36 +80,6 @@ public class TodoController {
     return messageSource.getMessage(code, null, locale);
   }
 
-  private String resolveGroupLabel(Group group) {
-    if (group == null) {
-      return "";
-    }
-    String name = group.getName();
-    if (name == null || name.isBlank()) {
-      return "";
-    }
-    Locale locale = LocaleContextHolder.getLocale();
-    String key = groupNameKey(name);
-    if (key == null) {
-      return name;
-    }
-    return messageSource.getMessage(key, null, name, locale);
-  }
-
-  private String groupNameKey(String name) {
-    if (name == null) {
-      return null;
-    }
-    String slug = name.trim()
-        .toLowerCase(Locale.ROOT)
-        .replaceAll("[^a-z0-9]+", "_")
-        .replaceAll("^_+|_+$", "");
-    if (!slug.isEmpty()) {
-      return "group.name." + slug;
-    }
-    return "group.name." + name.trim();
-  }
-
   @ModelAttribute("todoForm")
   public TodoForm todoForm() {
     return new TodoForm();
@@ -110,59 +87,27 @@ public class TodoController {
 
   @ModelAttribute("categories")
   public List<Category> categories() {
-    return categoryRepository.findAll();
+    return referenceDataCache.categories();
   }
 
   @ModelAttribute("groups")
   public List<Group> groups() {
-    return groupRepository.findAllByOrderByTypeAscNameAsc();
+    return referenceDataCache.groups();
   }
 
   @ModelAttribute("groupOptions")
   public List<Map<String, Object>> groupOptions() {
-    List<Group> groups = groupRepository.findAllByOrderByTypeAscNameAsc();
-    List<Map<String, Object>> options = new ArrayList<>();
-    for (Group group : groups) {
-      if (group == null || group.getId() == null) {
-        continue;
-      }
-      Map<String, Object> row = new LinkedHashMap<>();
-      row.put("id", group.getId());
-      row.put("name", group.getName());
-      row.put("label", resolveGroupLabel(group));
-      row.put("type", group.getType() == null ? null : group.getType().name());
-      row.put("parentId", group.getParentId());
-      row.put("color", group.getColor());
-      options.add(row);
-    }
-    return options;
+    return referenceDataCache.groupOptions(LocaleContextHolder.getLocale());
   }
 
   @ModelAttribute("groupLabels")
   public Map<Long, String> groupLabels() {
-    Map<Long, String> labels = new LinkedHashMap<>();
-    for (Group group : groupRepository.findAllByOrderByTypeAscNameAsc()) {
-      if (group == null || group.getId() == null) {
-        continue;
-      }
-      labels.put(group.getId(), resolveGroupLabel(group));
-    }
-    return labels;
+    return referenceDataCache.groupLabels(LocaleContextHolder.getLocale());
   }
 
   @ModelAttribute("categoryLabels")
   public Map<Long, String> categoryLabels() {
-    Map<Long, String> labels = new LinkedHashMap<>();
-    Locale locale = LocaleContextHolder.getLocale();
-    for (Category category : categoryRepository.findAll()) {
-      if (category == null || category.getId() == null) {
-        continue;
-      }
-      String fallback = category.getName();
-      String label = messageSource.getMessage("category." + category.getId(), null, fallback, locale);
-      labels.put(category.getId(), label);
-    }
-    return labels;
+    return referenceDataCache.categoryLabels(LocaleContextHolder.getLocale());
   }
 
   @GetMapping
@@ -172,32 +117,18 @@ public class TodoController {
       @RequestParam(required = false) Long categoryId,
       @RequestParam(required = false) Long groupId,
       @RequestParam(required = false) String status,
+      @RequestParam(required = false) String cursor,
       @PageableDefault(size = 10) Pageable pageable,
       @AuthenticationPrincipal UserDetails userDetails,
       Model model) {
 
-    long userId = requireUserId(userDetails);
-    Page<Todo> page = todoService.findPage(userId, keyword, sort, direction, categoryId, groupId, status, pageable);
-    model.addAttribute("todos", page.getContent());
-    model.addAttribute("page", page);
-    model.addAttribute("keyword", keyword == null ? "" : keyword);
-    model.addAttribute("sort", sort == null ? "createdAt" : sort);
-    model.addAttribute("direction", direction == null ? "desc" : direction);
-    model.addAttribute("categoryId", categoryId);
-    model.addAttribute("groupId", groupId);
-    model.addAttribute("status", status);
-    model.addAttribute("resultCount", page.getTotalElements());
-
-    long total = page.getTotalElements();
-    long start = total == 0 ? 0 : (page.getNumber() * (long) page.getSize()) + 1;
-    long end = total == 0 ? 0 : Math.min(start + page.getSize() - 1, total);
-    model.addAttribute("start", start);
-    model.addAttribute("end", end);
+    todoListModel.populate(model, requireUserId(userDetails), keyword, sort, direction, categoryId, groupId,
+        status, cursor, pageable);
     return "index";
   }
 
   @GetMapping("/export")
-  public ResponseEntity<byte[]> exportCsv(@RequestParam(required = false) String keyword,
+  public ResponseEntity<StreamingResponseBody> exportCsv(@RequestParam(required = false) String keyword,
       @RequestParam(required = false) String sort,
       @RequestParam(required = false) String direction,
       @RequestParam(required = false) Long categoryId,
@@ -206,51 +137,28 @@ public class TodoController {
       @RequestParam(required = false) List<Long> ids,
       @AuthenticationPrincipal UserDetails userDetails) {
     long userId = requireUserId(userDetails);
-    List<Todo> todos = (ids != null && !ids.isEmpty())
-        ? todoService.findForExportByIds(userId, ids)
-        : todoService.findForExport(userId, keyword, sort, direction, categoryId, groupId, status);
-    if (todos.isEmpty()) {
-      return ResponseEntity.noContent().build();
-    }
-
-    StringBuilder csv = new StringBuilder();
-    csv.append("ID,繧ｿ繧､繝医Ν,逋ｻ骭ｲ閠・繧ｹ繝・・繧ｿ繧ｹ,菴懈・譌･\r\n");
-    DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-    for (Todo todo : todos) {
-      csv.append(csvCell(todo.getId() == null ? "" : String.valueOf(todo.getId()))).append(",");
-      csv.append(csvCell(todo.getTitle())).append(",");
-      csv.append(csvCell(todo.getAuthor())).append(",");
-      String statusLabel = todo.getStatus() != null
-          ? messageSource.getMessage("status." + todo.getStatus().name().toLowerCase(), null,
-              todo.getStatus().name(), LocaleContextHolder.getLocale())
-          : "-";
-      csv.append(csvCell(statusLabel)).append(",");
-      String createdAt = todo.getCreatedAt() == null ? "" : todo.getCreatedAt().format(dateFormatter);
-      csv.append(csvCell(createdAt)).append("\r\n");
+    Locale locale = LocaleContextHolder.getLocale();
+    StreamingResponseBody body;
+    if (ids != null && !ids.isEmpty()) {
+      List<Todo> todos = todoService.findForExportByIds(userId, ids);
+      if (todos.isEmpty()) {
+        return ResponseEntity.noContent().build();
+      }
+      body = out -> todoCsvWriter.write(out, todos, locale);
+    } else {
+      if (!todoService.hasExportRows(userId, keyword, categoryId, groupId, status)) {
+        return ResponseEntity.noContent().build();
+      }
+      body = out -> todoService.writeExport(userId, keyword, sort, direction, categoryId, groupId,
+          status, locale, out);
     }
 
-    byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
-    byte[] bom = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
-    byte[] bytes = new byte[bom.length + body.length];
-    System.arraycopy(bom, 0, bytes, 0, bom.length);
-    System.arraycopy(body, 0, bytes, bom.length, body.length);
-
     String filename = "todo_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".csv";
     HttpHeaders headers = new HttpHeaders();
     headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
     headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
 
-    return ResponseEntity.ok().headers(headers).body(bytes);
-  }
-
-  private String csvCell(String value) {
-    if (value == null) {
-      return "";
-    }
-    boolean needsQuote = value.contains(",") || value.contains("\"")
-        || value.contains("\r") || value.contains("\n");
-    String escaped = value.replace("\"", "\"\"");
-    return needsQuote ? "\"" + escaped + "\"" : escaped;
+    return ResponseEntity.ok().headers(headers).body(body);
   }
 
   @GetMapping("/new")
@@ -260,17 +168,10 @@ public class TodoController {
       form.setAuthor(userDetails.getUsername());
     }
     if (userDetails != null && (form.getGroupIds() == null || form.getGroupIds().isEmpty())) {
-      appUserRepository.findByUsername(userDetails.getUsername())
-          .map(AppUser::getDefaultGroups)
-          .ifPresent(groups -> {
-            if (groups == null || groups.isEmpty()) {
-              return;
-            }
-            form.setGroupIds(groups.stream()
-                .filter(g -> g != null && g.getId() != null)
-                .map(Group::getId)
-                .toList());
-          });
+      userContextService.findByUsername(userDetails.getUsername())
+          .map(UserContext::groupIds)
+          .filter(groupIds -> !groupIds.isEmpty())
+          .ifPresent(groupIds -> form.setGroupIds(groupIds.stream().sorted().toList()));
     }
     if (form.getDueDate() == null) {
       form.setDueDate(java.time.LocalDate.now().plusWeeks(1));
@@ -281,7 +182,8 @@ public class TodoController {
   @PostMapping("/confirm")
   public String confirm(@Valid @ModelAttribute("todoForm") TodoForm form,
       BindingResult bindingResult,
-      @RequestParam(name = "files", required = false) List<MultipartFile> files) {
+      @RequestParam(name = "files", required = false) List<MultipartFile> files,
+      Model model) {
     if (files != null && files.stream().anyMatch(f -> f != null && !f.isEmpty())) {
       if (form.getAttachmentStoredFilenames() != null) {
         for (String stored : form.getAttachmentStoredFilenames()) {
@@ -312,6 +214,7 @@ public class TodoController {
     if (bindingResult.hasErrors()) {
       return "todo/new";
     }
+    model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
     return "todo/confirm";
   }
 
@@ -323,32 +226,74 @@ public class TodoController {
 
   @PostMapping("/complete")
   public String complete(@ModelAttribute("todoForm") TodoForm form,
+      @RequestParam(name = "idempotencyKey", required = false) String idempotencyKey,
       RedirectAttributes redirectAttributes,
       @AuthenticationPrincipal UserDetails userDetails,
       SessionStatus sessionStatus) {
     long userId = requireUserId(userDetails);
+    String key = idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 100
+        ? null
+        : "web:" + userId + ":" + idempotencyKey;
+    String fingerprint = TodoService.fingerprint(form);
+    if (key != null) {
+      Optional<IdempotencyRecord> existing = idempotencyStore.claim(key, fingerprint);
+      if (existing.isPresent()) {
+        IdempotencyRecord record = existing.get();
+        if (record.isCompleted() && fingerprint.equals(record.getFingerprint())) {
+          redirectAttributes.addFlashAttribute("successMessage", msg("msg.success_saved"));
+          sessionStatus.setComplete();
+          return "redirect:/todos";
+        }
+        redirectAttributes.addFlashAttribute("errorMessage", msg("msg.duplicate_submit"));
+        return "redirect:/todos/new";
+      }
+    }
     try {
-      Todo created = todoService.create(userId, form);
+      Todo created = todoService.create(userId, form, key == null);
       todoAttachmentService.attachStoredList(created, form);
+      if (key != null) {
+        idempotencyStore.complete(key, HttpStatus.SEE_OTHER.value(), null, null, created.getId());
+      }
       redirectAttributes.addFlashAttribute("successMessage", msg("msg.success_saved"));
       sessionStatus.setComplete();
       return "redirect:/todos";
     } catch (DuplicateSubmissionException ex) {
+      releaseClaim(key);
       redirectAttributes.addFlashAttribute("errorMessage", msg("msg.duplicate_submit"));
       return "redirect:/todos/new";
+    } catch (RuntimeException ex) {
+      releaseClaim(key);
+      throw ex;
+    }
+  }
+
+  private void releaseClaim(String key) {
+    if (key != null) {
+      idempotencyStore.release(key);
     }
   }
 
   @GetMapping("/{id:\\d+}")
   public String detail(@PathVariable("id") long id, Model model,
-      RedirectAttributes redirectAttributes,
+      RedirectAttributes redirectAttributes, WebRequest webRequest, HttpServletResponse response,
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo todo = todoService.findById(id).orElse(null);
     if (todo == null) {
       throw new TodoNotFoundException(msg("msg.not_found"));
     }
-    ensureCanAccess(todo, requireUserId(userDetails));
-    model.addAttribute("attachments", todoAttachmentService.findByTodoId(todo.getId()));
+    ensureCanAccess(todo, requireUser(userDetails));
+    List<TodoAttachment> attachments = todoAttachmentService.findByTodoId(todo.getId());
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+    Locale locale = LocaleContextHolder.getLocale();
+    if (!model.containsAttribute("successMessage") && !model.containsAttribute("errorMessage")
+        && webRequest.checkNotModified(
+            TodoEtags.ofPage(todo, attachments, locale, referenceDataCache.labelsTag(
+                todo.getCategory() == null ? null : todo.getCategory().getId(),
+                todo.getGroups() == null ? List.of() : todo.getGroups().stream().map(Group::getId).toList(),
+                locale)))) {
+      return null;
+    }
+    model.addAttribute("attachments", attachments);
     model.addAttribute("todo", todo);
     return "todo/detail";
   }
@@ -358,7 +303,7 @@ public class TodoController {
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo todo = todoService.findById(id)
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-    ensureCanAccess(todo, requireUserId(userDetails));
+    ensureCanAccess(todo, requireUser(userDetails));
     model.addAttribute("attachments", todoAttachmentService.findByTodoId(todo.getId()));
     model.addAttribute("todoForm", todoService.toForm(todo));
     return "todo/edit";
@@ -380,7 +325,7 @@ public class TodoController {
     try {
       Todo existing = todoService.findById(id)
           .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-      ensureCanAccess(existing, requireUserId(userDetails));
+      ensureCanAccess(existing, requireUser(userDetails));
       todoService.update(id, form);
       if (files != null) {
         for (MultipartFile file : files) {
@@ -433,7 +378,7 @@ public class TodoController {
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo todo = todoService.findById(id)
         .orElseThrow(() -> new TodoNotFoundException(msg("msg.not_found")));
-    ensureCanAccess(todo, requireUserId(userDetails));
+    ensureCanAccess(todo, requireUser(userDetails));
     if (file == null || file.isEmpty()) {
       redirectAttributes.addFlashAttribute("errorMessage", msg("msg.file_select"));
       if ("edit".equalsIgnoreCase(redirect)) {
@@ -471,7 +416,7 @@ public class TodoController {
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo todo = todoService.findById(todoId)
         .orElseThrow(() -> new TodoNotFoundException(msg("msg.not_found")));
-    ensureCanAccess(todo, requireUserId(userDetails));
+    ensureCanAccess(todo, requireUser(userDetails));
     TodoAttachment attachment = todoAttachmentService.findById(attachmentId);
     if (attachment == null || attachment.getTodo() == null
         || !attachment.getTodo().getId().equals(todoId)) {
@@ -549,7 +494,7 @@ public class TodoController {
       @AuthenticationPrincipal UserDetails userDetails) {
     Todo todo = todoService.findById(todoId)
         .orElseThrow(() -> new TodoNotFoundException(msg("msg.not_found")));
-    ensureCanAccess(todo, requireUserId(userDetails));
+    ensureCanAccess(todo, requireUser(userDetails));
     TodoAttachment attachment = todoAttachmentService.findById(attachmentId);
     if (attachment == null || attachment.getTodo() == null
         || !attachment.getTodo().getId().equals(todoId)) {
@@ -588,7 +533,7 @@ public class TodoController {
     try {
       Todo existing = todoService.findById(id)
           .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-      ensureCanAccess(existing, requireUserId(userDetails));
+      ensureCanAccess(existing, requireUser(userDetails));
       if (!Boolean.TRUE.equals(existing.getCompleted())) {
         if (ajax) {
           return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "not_allowed"));
@@ -618,11 +563,14 @@ public class TodoController {
   }
 
   private long requireUserId(UserDetails userDetails) {
+    return requireUser(userDetails).id();
+  }
+
+  private UserContext requireUser(UserDetails userDetails) {
     if (userDetails == null) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
     }
-    return appUserRepository.findByUsername(userDetails.getUsername())
-        .map(AppUser::getId)
+    return userContextService.findByUsername(userDetails.getUsername())
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
   }
 
@@ -633,42 +581,17 @@ public class TodoController {
     }
   }
 
-  private void ensureCanAccess(Todo todo, long userId) {
-    if (todo.getUser() != null && todo.getUser().getId() != null
-        && todo.getUser().getId().longValue() == userId) {
-      return;
-    }
-    AppUser user = appUserRepository.findById(userId).orElse(null);
-    if (user == null) {
-      throw new ResponseStatusException(HttpStatus.FORBIDDEN);
-    }
-    if (user.getDefaultGroups() == null || user.getDefaultGroups().isEmpty()) {
-      throw new ResponseStatusException(HttpStatus.FORBIDDEN);
-    }
-    if (todo.getGroups() == null || todo.getGroups().isEmpty()) {
+  private void ensureCanAccess(Todo todo, UserContext user) {
+    if (!user.canAccess(todo)) {
       throw new ResponseStatusException(HttpStatus.FORBIDDEN);
     }
-    for (Group userGroup : user.getDefaultGroups()) {
-      if (userGroup == null || userGroup.getId() == null) {
-        continue;
-      }
-      for (Group todoGroup : todo.getGroups()) {
-        if (todoGroup == null || todoGroup.getId() == null) {
-          continue;
-        }
-        if (todoGroup.getId().longValue() == userGroup.getId().longValue()) {
-          return;
-        }
-      }
-    }
-    throw new ResponseStatusException(HttpStatus.FORBIDDEN);
   }
 
   private ResponseEntity<Resource> attachmentResource(long todoId, long attachmentId,
       boolean download, UserDetails userDetails) {
     Todo todo = todoService.findById(todoId)
         .orElseThrow(() -> new TodoNotFoundException(msg("msg.not_found")));
-    ensureCanAccess(todo, requireUserId(userDetails));
+    ensureCanAccess(todo, requireUser(userDetails));
     TodoAttachment attachment = todoAttachmentService.findById(attachmentId);
     if (attachment == null || attachment.getTodo() == null
         || !attachment.getTodo().getId().equals(todoId)) {
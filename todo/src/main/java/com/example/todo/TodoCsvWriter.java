@@ -0,0 +1,61 @@
+package com.example.todo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoCsvWriter {
+
+  private static final String HEADER = "ID,繧ｿ繧､繝医Ν,逋ｻ骭ｲ閠・繧ｹ繝・・繧ｿ繧ｹ,菴懈・譌･\r\n";
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+  private final MessageSource messageSource;
+
+  public TodoCsvWriter(MessageSource messageSource) {
+    this.messageSource = messageSource;
+  }
+
+  public long write(OutputStream out, Iterable<Todo> todos, Locale locale) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write('\uFEFF');
+    writer.write(HEADER);
+    long count = 0;
+    for (Todo todo : todos) {
+      writer.write(csvCell(todo.getId() == null ? "" : String.valueOf(todo.getId())));
+      writer.write(',');
+      writer.write(csvCell(todo.getTitle()));
+      writer.write(',');
+      writer.write(csvCell(todo.getAuthor()));
+      writer.write(',');
+      String statusLabel = todo.getStatus() != null
+          ? messageSource.getMessage("status." + todo.getStatus().name().toLowerCase(), null,
+              todo.getStatus().name(), locale)
+          : "-";
+      writer.write(csvCell(statusLabel));
+      writer.write(',');
+      writer.write(csvCell(todo.getCreatedAt() == null ? "" : todo.getCreatedAt().format(DATE_FORMATTER)));
+      writer.write("\r\n");
+      count++;
+    }
+    writer.flush();
+    return count;
+  }
+
+  private String csvCell(String value) {
+    if (value == null) {
+      return "";
+    }
+    boolean needsQuote = value.contains(",") || value.contains("\"")
+        || value.contains("\r") || value.contains("\n");
+    String escaped = value.replace("\"", "\"\"");
+    return needsQuote ? "\"" + escaped + "\"" : escaped;
+  }
+}
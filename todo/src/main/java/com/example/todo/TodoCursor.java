@@ -0,0 +1,91 @@
+package com.example.todo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+
+public final class TodoCursor {
+
+  private static final Set<String> SORT_KEYS = Set.of("createdAt", "title", "dueDate", "status");
+
+  private final String sort;
+  private final String direction;
+  private final Object value;
+  private final long id;
+
+  private TodoCursor(String sort, String direction, Object value, long id) {
+    this.sort = sort;
+    this.direction = direction;
+    this.value = value;
+    this.id = id;
+  }
+
+  public static String normalizeSort(String sort) {
+    return (sort == null || !SORT_KEYS.contains(sort)) ? "createdAt" : sort;
+  }
+
+  public static String normalizeDirection(String direction) {
+    return "asc".equals(direction) ? "asc" : "desc";
+  }
+
+  public static TodoCursor after(String sort, String direction, Todo last) {
+    String safeSort = normalizeSort(sort);
+    Object value = switch (safeSort) {
+      case "title" -> last.getTitle();
+      case "dueDate" -> last.getDueDate();
+      case "status" -> last.getStatus() == null ? null : last.getStatus().name();
+      default -> last.getCreatedAt();
+    };
+    return new TodoCursor(safeSort, normalizeDirection(direction), value, last.getId());
+  }
+
+  public static TodoCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\n", 4);
+      if (parts.length != 4 || !SORT_KEYS.contains(parts[0]) || parts[3].isEmpty()) {
+        throw new BusinessException("カーソルが不正です。");
+      }
+      String sort = parts[0];
+      String direction = normalizeDirection(parts[1]);
+      long id = Long.parseLong(parts[2]);
+      Object value = parts[3].charAt(0) == 'n' ? null : parseValue(sort, parts[3].substring(1));
+      return new TodoCursor(sort, direction, value, id);
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      throw new BusinessException("カーソルが不正です。");
+    }
+  }
+
+  public String encode() {
+    String encodedValue = value == null ? "n" : "v" + value;
+    String raw = sort + "\n" + direction + "\n" + id + "\n" + encodedValue;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Object parseValue(String sort, String text) {
+    return switch (sort) {
+      case "createdAt" -> LocalDateTime.parse(text);
+      case "dueDate" -> LocalDate.parse(text);
+      default -> text;
+    };
+  }
+
+  public String getSort() {
+    return sort;
+  }
+
+  public String getDirection() {
+    return direction;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public long getId() {
+    return id;
+  }
+}
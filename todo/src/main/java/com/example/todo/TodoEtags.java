@@ -0,0 +1,50 @@
+package com.example.todo;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import org.springframework.http.ETag;
+
+final class TodoEtags {
+
+  private TodoEtags() {
+  }
+
+  static String of(long id, Long version, String labelsTag) {
+    return "\"todo-" + id + "-" + (version == null ? 0 : version) + "-" + labelsTag + "\"";
+  }
+
+  static String ofPage(Todo todo, List<TodoAttachment> attachments, Locale locale, String labelsTag) {
+    long lastAttachmentId = attachments.stream()
+        .map(TodoAttachment::getId)
+        .filter(Objects::nonNull)
+        .mapToLong(Long::longValue)
+        .max()
+        .orElse(0L);
+    return "\"todo-page-" + todo.getId() + "-" + (todo.getVersion() == null ? 0 : todo.getVersion())
+        + "-" + attachments.size() + "." + lastAttachmentId + "-" + locale.toLanguageTag() + "-" + labelsTag + "\"";
+  }
+
+  static boolean matchesIfNoneMatch(String header, String etag) {
+    return matches(header, etag, false);
+  }
+
+  static boolean matchesIfMatch(String header, long id, Long version) {
+    if (header == null || header.isBlank()) {
+      return false;
+    }
+    String current = "todo-" + id + "-" + (version == null ? 0 : version);
+    return ETag.parse(header).stream()
+        .anyMatch(candidate -> candidate.isWildcard()
+            || !candidate.weak() && (candidate.tag().equals(current) || candidate.tag().startsWith(current + "-")));
+  }
+
+  private static boolean matches(String header, String etag, boolean strong) {
+    if (header == null || header.isBlank()) {
+      return false;
+    }
+    ETag current = ETag.create(etag);
+    return ETag.parse(header).stream()
+        .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, strong));
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.todo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TodoGroupLink {
+  private Long todoId;
+  private Long groupId;
+}
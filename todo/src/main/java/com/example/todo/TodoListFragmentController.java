@@ -0,0 +1,62 @@
+package com.example.todo;
+
+import java.util.Map;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+@Controller
+@RequestMapping("/todos/fragments")
+public class TodoListFragmentController {
+
+  private final TodoListModel todoListModel;
+  private final UserContextService userContextService;
+  private final ReferenceDataCache referenceDataCache;
+
+  public TodoListFragmentController(TodoListModel todoListModel, UserContextService userContextService,
+      ReferenceDataCache referenceDataCache) {
+    this.todoListModel = todoListModel;
+    this.userContextService = userContextService;
+    this.referenceDataCache = referenceDataCache;
+  }
+
+  @ModelAttribute("categoryLabels")
+  public Map<Long, String> categoryLabels() {
+    return referenceDataCache.categoryLabels(LocaleContextHolder.getLocale());
+  }
+
+  @GetMapping("/list")
+  public String list(@RequestParam(required = false) String keyword,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String direction,
+      @RequestParam(required = false) Long categoryId,
+      @RequestParam(required = false) Long groupId,
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String cursor,
+      @PageableDefault(size = 10) Pageable pageable,
+      @AuthenticationPrincipal UserDetails userDetails,
+      Model model) {
+    todoListModel.populate(model, requireUserId(userDetails), keyword, sort, direction, categoryId, groupId,
+        status, cursor, pageable);
+    return "todo/list-fragment :: results";
+  }
+
+  private long requireUserId(UserDetails userDetails) {
+    if (userDetails == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    }
+    return userContextService.findByUsername(userDetails.getUsername())
+        .map(UserContext::id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.todo;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.ui.Model;
+
+@Component
+public class TodoListModel {
+
+  private final TodoService todoService;
+
+  public TodoListModel(TodoService todoService) {
+    this.todoService = todoService;
+  }
+
+  public void populate(Model model, long userId, String keyword, String sort, String direction,
+      Long categoryId, Long groupId, String status, String cursor, Pageable pageable) {
+    model.addAttribute("keyword", keyword == null ? "" : keyword);
+    String effectiveSort = todoService.resolveSort(sort, keyword);
+    model.addAttribute("sort", effectiveSort);
+    model.addAttribute("direction", direction == null ? "desc" : direction);
+    model.addAttribute("categoryId", categoryId);
+    model.addAttribute("groupId", groupId);
+    model.addAttribute("status", status);
+    model.addAttribute("cursor", cursor == null || cursor.isBlank() ? null : cursor);
+
+    if (cursor != null && !cursor.isBlank()) {
+      CursorPage<Todo> slice = todoService.findSlice(userId, keyword, sort, direction, categoryId, groupId,
+          status, cursor, pageable.getPageSize(), false);
+      model.addAttribute("todos", slice.content());
+      model.addAttribute("nextCursor", slice.nextCursor());
+      return;
+    }
+
+    Page<Todo> page = todoService.findPage(userId, keyword, sort, direction, categoryId, groupId, status, pageable);
+    model.addAttribute("todos", page.getContent());
+    model.addAttribute("page", page);
+    model.addAttribute("resultCount", page.getTotalElements());
+    model.addAttribute("nextCursor", page.hasNext() && page.hasContent() && !"relevance".equals(effectiveSort)
+        ? TodoCursor.after(effectiveSort, direction, page.getContent().get(page.getNumberOfElements() - 1)).encode()
+        : null);
+
+    long total = page.getTotalElements();
+    long start = total == 0 ? 0 : (page.getNumber() * (long) page.getSize()) + 1;
+    long end = total == 0 ? 0 : Math.min(start + page.getSize() - 1, total);
+    model.addAttribute("start", start);
+    model.addAttribute("end", end);
+  }
+}
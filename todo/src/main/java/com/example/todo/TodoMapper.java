@@ -1,30 +1,77 @@
 package com.example.todo;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 @Mapper
 public interface TodoMapper {
 
   List<Todo> search(@Param("keyword") String keyword,
       @Param("userId") Long userId,
-      @Param("userGroupIds") List<Long> userGroupIds,
       @Param("sort") String sort,
       @Param("direction") String direction,
       @Param("categoryId") Long categoryId,
-      @Param("groupIds") List<Long> groupIds,
+      @Param("groupId") Long groupId,
       @Param("status") TodoStatus status,
       @Param("limit") int limit,
       @Param("offset") int offset);
 
+  Cursor<Todo> streamSearch(@Param("keyword") String keyword,
+      @Param("userId") Long userId,
+      @Param("sort") String sort,
+      @Param("direction") String direction,
+      @Param("categoryId") Long categoryId,
+      @Param("groupId") Long groupId,
+      @Param("status") TodoStatus status);
+
+  List<Todo> searchAfter(@Param("keyword") String keyword,
+      @Param("userId") Long userId,
+      @Param("sort") String sort,
+      @Param("direction") String direction,
+      @Param("categoryId") Long categoryId,
+      @Param("groupId") Long groupId,
+      @Param("status") TodoStatus status,
+      @Param("cursorValue") Object cursorValue,
+      @Param("cursorId") Long cursorId,
+      @Param("limit") int limit);
+
+  List<TodoPageRow> searchWithTotal(@Param("keyword") String keyword,
+      @Param("userId") Long userId,
+      @Param("sort") String sort,
+      @Param("direction") String direction,
+      @Param("categoryId") Long categoryId,
+      @Param("groupId") Long groupId,
+      @Param("status") TodoStatus status,
+      @Param("cursorValue") Object cursorValue,
+      @Param("cursorId") Long cursorId,
+      @Param("limit") int limit,
+      @Param("offset") int offset);
+
+  Todo findVisibleById(@Param("id") Long id,
+      @Param("userId") Long userId);
+
+  List<Todo> findChangesSince(@Param("userId") Long userId,
+      @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("id") Long id,
+      @Param("limit") int limit);
+
+  TodoVersionRow findVisibleVersion(@Param("id") Long id,
+      @Param("userId") Long userId);
+
+  List<TodoGroupLink> findGroupLinks(@Param("todoIds") List<Long> todoIds);
+
   long count(@Param("keyword") String keyword,
       @Param("userId") Long userId,
-      @Param("userGroupIds") List<Long> userGroupIds,
       @Param("categoryId") Long categoryId,
-      @Param("groupIds") List<Long> groupIds,
+      @Param("groupId") Long groupId,
       @Param("status") TodoStatus status);
 
+  List<Long> lockDeletableIds(@Param("ids") List<Long> ids,
+      @Param("userId") long userId);
+
   int deleteByIds(@Param("ids") List<Long> ids,
       @Param("userId") Long userId);
 }
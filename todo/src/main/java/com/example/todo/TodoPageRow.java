@@ -0,0 +1,12 @@
+package com.example.todo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TodoPageRow {
+  private Long id;
+  private Todo todo;
+  private long totalCount;
+}
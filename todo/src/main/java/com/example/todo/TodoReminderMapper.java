@@ -0,0 +1,23 @@
+package com.example.todo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface TodoReminderMapper {
+
+  List<ReminderScheduleRow> findScheduleCandidates(@Param("todoIds") List<Long> todoIds);
+
+  int deleteScheduleByTodoIds(@Param("todoIds") List<Long> todoIds);
+
+  int insertSchedule(@Param("rows") List<ReminderScheduleRow> rows);
+
+  List<Long> findDueUserIds(@Param("now") LocalDateTime now, @Param("afterUserId") Long afterUserId,
+      @Param("limit") int limit);
+
+  List<Todo> findDueTodos(@Param("userIds") List<Long> userIds, @Param("now") LocalDateTime now);
+
+  int deleteDue(@Param("userIds") List<Long> userIds, @Param("now") LocalDateTime now);
+}
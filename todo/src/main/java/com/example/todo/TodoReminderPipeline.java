@@ -0,0 +1,133 @@
+package com.example.todo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class TodoReminderPipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(TodoReminderPipeline.class);
+
+  private final TodoReminderMapper todoReminderMapper;
+  private final ReminderScheduleService reminderScheduleService;
+  private final MailOutboxRepository mailOutboxRepository;
+  private final MailService mailService;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+  private final ThreadPoolTaskExecutor executor;
+  private final AtomicLong progress = new AtomicLong();
+  private final Counter users;
+  private final Counter mails;
+  private final Counter failures;
+
+  public TodoReminderPipeline(TodoReminderMapper todoReminderMapper, ReminderScheduleService reminderScheduleService,
+      MailOutboxRepository mailOutboxRepository,
+      MailService mailService, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+      @Value("${app.reminder.chunk-size:200}") int chunkSize,
+      @Value("${app.reminder.render-threads:4}") int threads) {
+    this.todoReminderMapper = todoReminderMapper;
+    this.reminderScheduleService = reminderScheduleService;
+    this.mailOutboxRepository = mailOutboxRepository;
+    this.mailService = mailService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(chunkSize);
+    executor.setThreadNamePrefix("reminder-");
+    executor.initialize();
+    this.users = Counter.builder("todo.reminder.users").register(meterRegistry);
+    this.mails = Counter.builder("todo.reminder.mails").register(meterRegistry);
+    this.failures = Counter.builder("todo.reminder.failures").register(meterRegistry);
+    Gauge.builder("todo.reminder.progress", progress, AtomicLong::get)
+        .register(meterRegistry);
+  }
+
+  public synchronized long dispatch(LocalDateTime now) {
+    long sent = 0;
+    Long afterUserId = null;
+    progress.set(0);
+    List<Long> userIds;
+    do {
+      userIds = todoReminderMapper.findDueUserIds(now, afterUserId, chunkSize);
+      if (userIds.isEmpty()) {
+        break;
+      }
+      List<Long> chunk = userIds;
+      List<Todo> due = todoReminderMapper.findDueTodos(chunk, now);
+      Set<Long> failed = new HashSet<>();
+      List<MailOutbox> rendered = render(due, failed);
+      List<Long> fired = chunk.stream().filter(userId -> !failed.contains(userId)).toList();
+      List<ReminderScheduleRow> next = reminderScheduleService.nextAfterFiring(due.stream()
+          .filter(todo -> !failed.contains(todo.getUser().getId()))
+          .toList(), now);
+      transactionTemplate.executeWithoutResult(status -> {
+        mailOutboxRepository.saveAll(rendered);
+        if (!fired.isEmpty()) {
+          todoReminderMapper.deleteDue(fired, now);
+        }
+        if (!next.isEmpty()) {
+          todoReminderMapper.insertSchedule(next);
+        }
+      });
+      afterUserId = chunk.get(chunk.size() - 1);
+      sent += rendered.size();
+      users.increment(chunk.size());
+      mails.increment(rendered.size());
+      progress.addAndGet(chunk.size());
+    } while (userIds.size() == chunkSize);
+    if (sent > 0) {
+      log.info("reminders dispatched at={} mails={}", now, sent);
+    }
+    return sent;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private List<MailOutbox> render(List<Todo> todos, Set<Long> failed) {
+    Map<Long, List<Todo>> byUser = new LinkedHashMap<>();
+    for (Todo todo : todos) {
+      byUser.computeIfAbsent(todo.getUser().getId(), key -> new ArrayList<>()).add(todo);
+    }
+    Map<Long, CompletableFuture<MailOutbox>> futures = new LinkedHashMap<>();
+    byUser.forEach((userId, userTodos) -> futures.put(userId, CompletableFuture.supplyAsync(
+        () -> mailService.renderDueSoonReminder(userTodos.get(0).getUser(), userTodos), executor)));
+    List<MailOutbox> rendered = new ArrayList<>(futures.size());
+    futures.forEach((userId, future) -> {
+      try {
+        MailOutbox mail = future.join();
+        if (mail != null) {
+          rendered.add(mail);
+        }
+      } catch (CompletionException ex) {
+        log.warn("reminder render failed userId={}", userId, ex.getCause());
+        failures.increment();
+        failed.add(userId);
+      }
+    });
+    return rendered;
+  }
+}
@@ -1,9 +1,13 @@
 package com.example.todo;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -17,8 +21,6 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
 
   List<Todo> findAllByDeletedAtIsNullOrderByCreatedAtDesc();
 
-  List<Todo> findAllByDueDateBetweenAndStatusNotAndDeletedAtIsNull(LocalDate start, LocalDate end, TodoStatus status);
-
   @Query("select t from Todo t where t.deletedAt is null and t.status = :status and t.title like %:keyword%")
   List<Todo> searchByStatusAndTitle(@Param("status") TodoStatus status,
       @Param("keyword") String keyword);
@@ -26,8 +28,10 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
   @Query("select t from Todo t where t.deletedAt is null and t.title like %:keyword%")
   List<Todo> searchByTitle(@Param("keyword") String keyword);
 
+  @EntityGraph(Todo.WITH_ASSOCIATIONS)
   List<Todo> findAllByUser_IdAndDeletedAtIsNullOrderByCreatedAtDesc(Long userId);
 
+  @EntityGraph(Todo.WITH_ASSOCIATIONS)
   @Query("select distinct t from Todo t join t.groups g "
       + "where t.deletedAt is null and g.id in :groupIds and t.user.id <> :userId "
       + "order by t.createdAt desc")
@@ -36,5 +40,15 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
 
   Optional<Todo> findByIdAndDeletedAtIsNull(Long id);
 
+  @Modifying(clearAutomatically = true)
+  @Query("update Todo t set t.deletedAt = :deletedAt, t.updatedAt = :deletedAt, t.version = t.version + 1 "
+      + "where t.id = :id and t.version = :version and t.deletedAt is null")
+  int softDeleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version,
+      @Param("deletedAt") LocalDateTime deletedAt);
+
+  @EntityGraph(Todo.WITH_ASSOCIATIONS)
   List<Todo> findAllByDeletedAtIsNotNullOrderByDeletedAtDesc();
+
+  @EntityGraph(Todo.WITH_ASSOCIATIONS)
+  List<Todo> findAllWithAssociationsByIdIn(Collection<Long> ids);
 }
@@ -1,14 +1,22 @@
 package com.example.todo;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
@@ -26,13 +34,22 @@ public class TodoService {
   private final MailService mailService;
   private final TodoAttachmentService todoAttachmentService;
   private final GroupRepository groupRepository;
-  private final ConcurrentHashMap<Long, RecentSubmission> recentSubmissions = new ConcurrentHashMap<>();
-  private static final long DUPLICATE_WINDOW_MS = 5000;
+  private final TodoVisibilityService todoVisibilityService;
+  private final UserContextService userContextService;
+  private final TodoCsvWriter todoCsvWriter;
+  private final ApplicationEventPublisher eventPublisher;
+  private final IdempotencyStore idempotencyStore;
+  private final ReminderScheduleService reminderScheduleService;
+  private static final Duration DUPLICATE_WINDOW = Duration.ofSeconds(5);
+  private static final int MAX_SLICE_SIZE = 100;
 
   public TodoService(TodoRepository todoRepository, TodoMapper todoMapper,
       CategoryRepository categoryRepository, AppUserRepository appUserRepository,
       AuditLogService auditLogService, MailService mailService,
-      TodoAttachmentService todoAttachmentService, GroupRepository groupRepository) {
+      TodoAttachmentService todoAttachmentService, GroupRepository groupRepository,
+      TodoVisibilityService todoVisibilityService, UserContextService userContextService,
+      TodoCsvWriter todoCsvWriter, ApplicationEventPublisher eventPublisher,
+      IdempotencyStore idempotencyStore, ReminderScheduleService reminderScheduleService) {
     this.todoRepository = todoRepository;
     this.todoMapper = todoMapper;
     this.categoryRepository = categoryRepository;
@@ -41,53 +58,93 @@ public class TodoService {
     this.mailService = mailService;
     this.todoAttachmentService = todoAttachmentService;
     this.groupRepository = groupRepository;
-  }
-
-  @Transactional(readOnly = true)
-  public List<Todo> findAll(long userId) {
-    return todoRepository.findAllByUser_IdAndDeletedAtIsNullOrderByCreatedAtDesc(userId);
+    this.todoVisibilityService = todoVisibilityService;
+    this.userContextService = userContextService;
+    this.todoCsvWriter = todoCsvWriter;
+    this.eventPublisher = eventPublisher;
+    this.idempotencyStore = idempotencyStore;
+    this.reminderScheduleService = reminderScheduleService;
   }
 
   @Transactional(readOnly = true)
   public Page<Todo> findPage(long userId, String keyword, String sort, String direction,
       Long categoryId, Long groupId, String status,
       Pageable pageable) {
-    String safeSort = (sort == null || sort.isBlank()) ? "createdAt" : sort;
+    String safeSort = resolveSort(sort, keyword);
     String safeDirection = (direction == null || direction.isBlank()) ? "desc" : direction;
-    String safeKeyword = (keyword == null || keyword.isBlank()) ? null : keyword.trim();
+    String safeKeyword = normalizeKeyword(keyword);
     TodoStatus safeStatus = parseStatus(status);
-    List<Long> groupIds = resolveGroupFilterIds(groupId);
-    List<Long> userGroupIds = resolveUserGroupIds(userId);
-    long total = todoMapper.count(safeKeyword, userId, userGroupIds, categoryId, groupIds, safeStatus);
-    List<Todo> content = todoMapper.search(
+    Long groupFilterId = resolveGroupFilterId(groupId);
+    List<TodoPageRow> rows = todoMapper.searchWithTotal(
         safeKeyword,
         userId,
-        userGroupIds,
         safeSort,
         safeDirection,
         categoryId,
-        groupIds,
+        groupFilterId,
         safeStatus,
+        null,
+        null,
         pageable.getPageSize(),
         (int) pageable.getOffset());
+    List<Todo> content = rows.stream().map(TodoPageRow::getTodo).toList();
+    long total = rows.isEmpty()
+        ? (pageable.getOffset() == 0 ? 0 : todoMapper.count(safeKeyword, userId, categoryId, groupFilterId, safeStatus))
+        : rows.get(0).getTotalCount();
     return new PageImpl<>(content, pageable, total);
   }
 
   @Transactional(readOnly = true)
-  public List<Todo> findForExport(long userId, String keyword, String sort, String direction,
-      Long categoryId, Long groupId, String status) {
-    String safeSort = (sort == null || sort.isBlank()) ? "createdAt" : sort;
+  public CursorPage<Todo> findSlice(long userId, String keyword, String sort, String direction,
+      Long categoryId, Long groupId, String status, String cursor, int size, boolean withTotal) {
+    TodoCursor position = (cursor == null || cursor.isBlank()) ? null : TodoCursor.decode(cursor);
+    String safeSort = position != null ? position.getSort() : TodoCursor.normalizeSort(sort);
+    String safeDirection = position != null ? position.getDirection() : TodoCursor.normalizeDirection(direction);
+    String safeKeyword = normalizeKeyword(keyword);
+    int safeSize = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+    TodoStatus safeStatus = parseStatus(status);
+    Long groupFilterId = resolveGroupFilterId(groupId);
+    Object cursorValue = position == null ? null : position.getValue();
+    Long cursorId = position == null ? null : position.getId();
+    List<Todo> rows;
+    Long total = null;
+    if (withTotal) {
+      List<TodoPageRow> pageRows = todoMapper.searchWithTotal(safeKeyword, userId, safeSort,
+          safeDirection, categoryId, groupFilterId, safeStatus, cursorValue, cursorId, safeSize + 1, 0);
+      rows = pageRows.stream().map(TodoPageRow::getTodo).toList();
+      total = pageRows.isEmpty()
+          ? (position == null ? 0L : todoMapper.count(safeKeyword, userId, categoryId, groupFilterId, safeStatus))
+          : pageRows.get(0).getTotalCount();
+    } else {
+      rows = todoMapper.searchAfter(safeKeyword, userId, safeSort, safeDirection,
+          categoryId, groupFilterId, safeStatus, cursorValue, cursorId, safeSize + 1);
+    }
+    if (rows.size() <= safeSize) {
+      return new CursorPage<>(rows, null, total);
+    }
+    List<Todo> content = rows.subList(0, safeSize);
+    String nextCursor = TodoCursor.after(safeSort, safeDirection, content.get(safeSize - 1)).encode();
+    return new CursorPage<>(content, nextCursor, total);
+  }
+
+  @Transactional(readOnly = true)
+  public boolean hasExportRows(long userId, String keyword, Long categoryId, Long groupId, String status) {
+    return !todoMapper.search(normalizeKeyword(keyword), userId, "createdAt", "desc", categoryId,
+        resolveGroupFilterId(groupId), parseStatus(status), 1, 0).isEmpty();
+  }
+
+  @Transactional(readOnly = true)
+  public long writeExport(long userId, String keyword, String sort, String direction,
+      Long categoryId, Long groupId, String status, Locale locale, OutputStream out) throws IOException {
+    String safeSort = resolveSort(sort, keyword);
     String safeDirection = (direction == null || direction.isBlank()) ? "desc" : direction;
-    String safeKeyword = (keyword == null || keyword.isBlank()) ? null : keyword.trim();
+    String safeKeyword = normalizeKeyword(keyword);
     TodoStatus safeStatus = parseStatus(status);
-    List<Long> groupIds = resolveGroupFilterIds(groupId);
-    List<Long> userGroupIds = resolveUserGroupIds(userId);
-    long total = todoMapper.count(safeKeyword, userId, userGroupIds, categoryId, groupIds, safeStatus);
-    if (total <= 0) {
-      return List.of();
+    Long groupFilterId = resolveGroupFilterId(groupId);
+    try (Cursor<Todo> cursor = todoMapper.streamSearch(safeKeyword, userId, safeSort, safeDirection,
+        categoryId, groupFilterId, safeStatus)) {
+      return todoCsvWriter.write(out, cursor, locale);
     }
-    int limit = total > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) total;
-    return todoMapper.search(safeKeyword, userId, userGroupIds, safeSort, safeDirection, categoryId, groupIds, safeStatus, limit, 0);
   }
 
   @Transactional(readOnly = true)
@@ -95,9 +152,9 @@ public class TodoService {
     if (ids == null || ids.isEmpty()) {
       return List.of();
     }
-    AppUser user = resolveUser(userId);
-    List<Todo> todos = todoRepository.findAllById(ids);
-    todos.removeIf(todo -> todo.getDeletedAt() != null || !canAccess(todo, user));
+    UserContext user = resolveUserContext(userId);
+    List<Todo> todos = new ArrayList<>(todoRepository.findAllWithAssociationsByIdIn(ids));
+    todos.removeIf(todo -> todo.getDeletedAt() != null || !user.canAccess(todo));
     todos.sort((a, b) -> {
       if (a.getCreatedAt() == null && b.getCreatedAt() == null) {
         return 0;
@@ -152,23 +209,32 @@ public class TodoService {
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
   @Auditable(action = "TODO_CREATE", targetType = "Todo")
   public Todo create(long userId, TodoForm form) {
-    if (isDuplicateSubmission(userId, form)) {
+    return create(userId, form, true);
+  }
+
+  @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
+  @Auditable(action = "TODO_CREATE", targetType = "Todo")
+  public Todo create(long userId, TodoForm form, boolean dedupe) {
+    if (dedupe && isDuplicateSubmission(userId, form)) {
       throw new DuplicateSubmissionException("duplicate");
     }
-    AppUser user = resolveUser(userId);
-    form.setAuthor(user.getUsername());
-    Todo todo = toEntity(userId, form);
-    Todo saved = todoRepository.save(todo);
-    auditLogService.record("TODO_CREATE", "todoId=" + saved.getId() + ", userId=" + userId);
+    UserContext user = resolveUserContext(userId);
+    form.setAuthor(user.username());
+    Todo todo = toEntity(user, form);
+    Todo saved = todoRepository.saveAndFlush(todo);
+    todoVisibilityService.refreshTodo(saved.getId());
+    eventPublisher.publishEvent(TodoChangedEvent.of(TodoChangedEvent.Type.CREATED, saved.getId()));
     mailService.sendTodoCreated(saved.getUser(), saved);
     return saved;
   }
 
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
-  @Auditable(action = "TODO_UPDATE", targetType = "Todo")
+  @Auditable(action = "TODO_UPDATE", targetType = "Todo", diff = true)
   public Todo update(long id, TodoForm form) {
     Todo todo = todoRepository.findByIdAndDeletedAtIsNull(id)
         .orElseThrow(() -> new IllegalArgumentException("Todo not found: " + id));
+    boolean scheduleChanged = !Objects.equals(todo.getDueDate(), form.getDueDate())
+        || todo.getStatus() != form.getStatus();
     todo.setTitle(form.getTitle());
     todo.setDescription(form.getDetail());
     todo.setDueDate(form.getDueDate());
@@ -177,23 +243,35 @@ public class TodoService {
     todo.setStatus(form.getStatus());
     todo.setGroups(resolveGroups(form.getGroupIds()));
     todo.setVersion(form.getVersion());
-    Todo saved = todoRepository.save(todo);
-    auditLogService.record("TODO_UPDATE", "todoId=" + saved.getId());
+    Todo saved = todoRepository.saveAndFlush(todo);
+    todoVisibilityService.refreshTodo(saved.getId());
+    eventPublisher.publishEvent(TodoChangedEvent.updated(List.of(saved.getId()),
+        scheduleChanged ? List.of(saved.getId()) : List.of()));
     return saved;
   }
 
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
-  @Auditable(action = "TODO_DELETE", targetType = "Todo")
+  @Auditable(action = "TODO_DELETE", targetType = "Todo", diff = true)
   public void deleteById(long id) {
     Todo todo = todoRepository.findByIdAndDeletedAtIsNull(id)
         .orElseThrow(() -> new IllegalArgumentException("Todo not found: " + id));
     todo.setDeletedAt(java.time.LocalDateTime.now());
-    todoRepository.save(todo);
-    auditLogService.record("TODO_DELETE", "todoId=" + id);
+    todoRepository.saveAndFlush(todo);
+    eventPublisher.publishEvent(TodoChangedEvent.of(TodoChangedEvent.Type.DELETED, id));
   }
 
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
-  @Auditable(action = "TODO_RESTORE", targetType = "Todo")
+  @Auditable(action = "TODO_DELETE", targetType = "Todo", diff = true)
+  public boolean deleteById(long id, long expectedVersion) {
+    if (todoRepository.softDeleteByIdAndVersion(id, expectedVersion, java.time.LocalDateTime.now()) == 0) {
+      return false;
+    }
+    eventPublisher.publishEvent(TodoChangedEvent.of(TodoChangedEvent.Type.DELETED, id));
+    return true;
+  }
+
+  @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
+  @Auditable(action = "TODO_RESTORE", targetType = "Todo", diff = true)
   public void restoreById(long id) {
     Todo todo = todoRepository.findById(id)
         .orElseThrow(() -> new IllegalArgumentException("Todo not found: " + id));
@@ -201,19 +279,20 @@ public class TodoService {
       return;
     }
     todo.setDeletedAt(null);
-    todoRepository.save(todo);
-    auditLogService.record("TODO_RESTORE", "todoId=" + id);
+    todoRepository.saveAndFlush(todo);
+    eventPublisher.publishEvent(TodoChangedEvent.of(TodoChangedEvent.Type.RESTORED, id));
   }
 
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
-  @Auditable(action = "TODO_DELETE", targetType = "Todo")
+  @Auditable(action = "TODO_DELETE_HARD", targetType = "Todo", diff = true)
   public void deleteByIdHard(long id) {
     if (!todoRepository.existsById(id)) {
       throw new IllegalArgumentException("Todo not found: " + id);
     }
     todoAttachmentService.deleteByTodoId(id);
+    todoVisibilityService.removeTodo(id);
+    reminderScheduleService.remove(id);
     todoRepository.deleteById(id);
-    auditLogService.record("TODO_DELETE_HARD", "todoId=" + id);
   }
 
   @Transactional(rollbackFor = Exception.class, noRollbackFor = BusinessException.class)
@@ -221,12 +300,16 @@ public class TodoService {
     if (ids == null || ids.isEmpty()) {
       return 0;
     }
-    int deleted = todoMapper.deleteByIds(ids, userId);
+    List<Long> deletable = todoMapper.lockDeletableIds(ids, userId);
+    int deleted = deletable.isEmpty() ? 0 : todoMapper.deleteByIds(deletable, userId);
     auditLogService.record("TODO_BULK_DELETE", "count=" + deleted + ", userId=" + userId);
+    if (deleted > 0) {
+      eventPublisher.publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, deletable));
+    }
     return deleted;
   }
 
-  private Todo toEntity(long userId, TodoForm form) {
+  private Todo toEntity(UserContext user, TodoForm form) {
     return Todo.builder()
         .author(form.getAuthor())
         .title(form.getTitle())
@@ -234,8 +317,9 @@ public class TodoService {
         .dueDate(form.getDueDate())
         .priority(form.getPriority() != null ? form.getPriority() : Priority.MEDIUM)
         .category(resolveCategory(form.getCategoryId()))
-        .user(resolveUser(userId))
-        .groups(resolveGroupsForUser(form.getGroupIds(), userId))
+        .user(appUserRepository.findById(user.id())
+            .orElseThrow(() -> new IllegalArgumentException("User not found: " + user.id())))
+        .groups(resolveGroupsForUser(form.getGroupIds(), user))
         .status(form.getStatus())
         .build();
   }
@@ -247,8 +331,8 @@ public class TodoService {
     return categoryRepository.findById(categoryId).orElse(null);
   }
 
-  private AppUser resolveUser(long userId) {
-    return appUserRepository.findById(userId)
+  private UserContext resolveUserContext(long userId) {
+    return userContextService.findById(userId)
         .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
   }
 
@@ -262,100 +346,32 @@ public class TodoService {
     return new java.util.HashSet<>(groups);
   }
 
-  private java.util.Set<Group> resolveGroupsForUser(java.util.List<Long> groupIds, long userId) {
-    if (groupIds == null || groupIds.isEmpty()) {
-      AppUser user = resolveUser(userId);
-      if (user.getDefaultGroups() != null && !user.getDefaultGroups().isEmpty()) {
-        return new java.util.HashSet<>(user.getDefaultGroups());
-      }
+  private java.util.Set<Group> resolveGroupsForUser(java.util.List<Long> groupIds, UserContext user) {
+    if ((groupIds == null || groupIds.isEmpty()) && !user.groupIds().isEmpty()) {
+      return new java.util.HashSet<>(groupRepository.findAllById(user.groupIds()));
     }
     return resolveGroups(groupIds);
   }
 
-  private List<Long> resolveUserGroupIds(long userId) {
-    AppUser user = resolveUser(userId);
-    if (user.getDefaultGroups() == null || user.getDefaultGroups().isEmpty()) {
-      return List.of();
+  private Long resolveGroupFilterId(Long groupId) {
+    if (groupId == null || !groupRepository.existsById(groupId)) {
+      return null;
     }
-    return user.getDefaultGroups().stream()
-        .filter(g -> g != null && g.getId() != null)
-        .map(Group::getId)
-        .toList();
+    return groupId;
   }
 
-  private boolean canAccess(Todo todo, AppUser user) {
-    if (todo == null || user == null) {
-      return false;
-    }
-    if (todo.getUser() != null && todo.getUser().getId() != null
-        && todo.getUser().getId().longValue() == user.getId().longValue()) {
-      return true;
-    }
-    if (todo.getGroups() == null || todo.getGroups().isEmpty()) {
-      return false;
+  public String resolveSort(String sort, String keyword) {
+    if (sort != null && !sort.isBlank()) {
+      return sort;
     }
-    if (user.getDefaultGroups() == null || user.getDefaultGroups().isEmpty()) {
-      return false;
-    }
-    for (Group todoGroup : todo.getGroups()) {
-      if (todoGroup == null || todoGroup.getId() == null) {
-        continue;
-      }
-      for (Group userGroup : user.getDefaultGroups()) {
-        if (userGroup == null || userGroup.getId() == null) {
-          continue;
-        }
-        if (todoGroup.getId().longValue() == userGroup.getId().longValue()) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return normalizeKeyword(keyword) == null ? "createdAt" : "relevance";
   }
 
-  private List<Long> resolveGroupFilterIds(Long groupId) {
-    if (groupId == null) {
-      return null;
-    }
-    Group selected = groupRepository.findById(groupId).orElse(null);
-    if (selected == null) {
+  private String normalizeKeyword(String keyword) {
+    if (keyword == null || keyword.isBlank()) {
       return null;
     }
-    if (selected.getType() == GroupType.PROJECT) {
-      return List.of(selected.getId());
-    }
-    List<Group> allGroups = groupRepository.findAll();
-    Map<Long, List<Group>> children = new HashMap<>();
-    for (Group group : allGroups) {
-      Long parentId = group.getParentId();
-      if (parentId == null) {
-        continue;
-      }
-      children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(group);
-    }
-    List<Long> projectIds = new ArrayList<>();
-    ArrayDeque<Group> stack = new ArrayDeque<>();
-    stack.push(selected);
-    while (!stack.isEmpty()) {
-      Group current = stack.pop();
-      List<Group> kids = children.get(current.getId());
-      if (kids == null) {
-        continue;
-      }
-      for (Group child : kids) {
-        if (child.getType() == GroupType.PROJECT) {
-          if (child.getId() != null) {
-            projectIds.add(child.getId());
-          }
-        } else {
-          stack.push(child);
-        }
-      }
-    }
-    if (projectIds.isEmpty()) {
-      return List.of(-1L);
-    }
-    return projectIds;
+    return Normalizer.normalize(keyword, Normalizer.Form.NFKC).strip();
   }
 
   private TodoStatus parseStatus(String status) {
@@ -375,17 +391,12 @@ public class TodoService {
   }
 
   private boolean isDuplicateSubmission(long userId, TodoForm form) {
-    long now = System.currentTimeMillis();
-    int hash = submissionHash(form);
-    RecentSubmission previous = recentSubmissions.get(userId);
-    if (previous != null && previous.hash == hash && (now - previous.timestamp) <= DUPLICATE_WINDOW_MS) {
-      return true;
-    }
-    recentSubmissions.put(userId, new RecentSubmission(hash, now));
-    return false;
+    String fingerprint = fingerprint(form);
+    return idempotencyStore.claim("submit:" + userId + ":" + fingerprint, fingerprint, DUPLICATE_WINDOW)
+        .isPresent();
   }
 
-  private int submissionHash(TodoForm form) {
+  static String fingerprint(TodoForm form) {
     String title = normalize(form.getTitle());
     String detail = normalize(form.getDetail());
     List<Long> groupIds = form.getGroupIds() == null ? new ArrayList<>() : new ArrayList<>(form.getGroupIds());
@@ -394,30 +405,22 @@ public class TodoService {
         ? new ArrayList<>()
         : new ArrayList<>(form.getAttachmentStoredFilenames());
     Collections.sort(attachments);
-    return Objects.hash(
-        title,
-        detail,
-        form.getDueDate(),
-        form.getPriority(),
-        form.getStatus(),
-        form.getCategoryId(),
-        groupIds,
-        attachments
-    );
+    StringBuilder canonical = new StringBuilder();
+    for (Object field : Arrays.asList(title, detail, form.getDueDate(), form.getPriority(), form.getStatus(),
+        form.getCategoryId(), groupIds, attachments)) {
+      String value = String.valueOf(field);
+      canonical.append(value.length()).append(':').append(value).append(';');
+    }
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
   }
 
-  private String normalize(String value) {
+  private static String normalize(String value) {
     return value == null ? "" : value.trim();
   }
-
-  private static final class RecentSubmission {
-    private final int hash;
-    private final long timestamp;
-
-    private RecentSubmission(int hash, long timestamp) {
-      this.hash = hash;
-      this.timestamp = timestamp;
-    }
-  }
 }
 
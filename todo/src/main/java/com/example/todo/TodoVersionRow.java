@@ -0,0 +1,11 @@
+package com.example.todo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TodoVersionRow {
+  private Long version;
+  private Long categoryId;
+}
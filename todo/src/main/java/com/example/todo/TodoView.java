@@ -0,0 +1,12 @@
+package com.example.todo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TodoView(Long id, String title, String description, String author, LocalDate dueDate,
+    Priority priority, TodoStatus status, Long categoryId, String categoryName, String categoryColor,
+    Long ownerId, List<GroupRef> groups, Long version, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+  public record GroupRef(Long id, String label) {}
+}
@@ -0,0 +1,136 @@
+package com.example.todo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class TodoViewService {
+
+  private final TodoService todoService;
+  private final TodoMapper todoMapper;
+  private final ReferenceDataCache referenceDataCache;
+  private final Duration settleLag;
+  private static final int MAX_CHANGES_SIZE = 500;
+
+  public TodoViewService(TodoService todoService, TodoMapper todoMapper, ReferenceDataCache referenceDataCache,
+      @Value("${app.todo.sync.settle-lag:5s}") Duration settleLag) {
+    this.todoService = todoService;
+    this.todoMapper = todoMapper;
+    this.referenceDataCache = referenceDataCache;
+    this.settleLag = settleLag;
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPage<TodoView> findSlice(long userId, String keyword, String sort, String direction,
+      Long categoryId, Long groupId, String status, String cursor, int size, boolean withTotal, Locale locale) {
+    CursorPage<Todo> slice = todoService.findSlice(userId, keyword, sort, direction, categoryId, groupId, status,
+        cursor, size, withTotal);
+    return new CursorPage<>(toViews(slice.content(), locale), slice.nextCursor(), slice.total());
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<TodoView> findVisible(long id, long userId, Locale locale) {
+    Todo todo = todoMapper.findVisibleById(id, userId);
+    return todo == null ? Optional.empty() : Optional.of(toViews(List.of(todo), locale).get(0));
+  }
+
+  @Transactional(readOnly = true)
+  public TodoChanges findChanges(long userId, String since, int size, Locale locale) {
+    TodoWatermark from = (since == null || since.isBlank()) ? null : TodoWatermark.decode(since);
+    int safeSize = Math.min(Math.max(size, 1), MAX_CHANGES_SIZE);
+    List<Todo> rows = todoMapper.findChangesSince(userId,
+        from == null ? null : from.updatedAt(), from == null ? null : from.id(), safeSize + 1);
+    boolean full = rows.size() > safeSize;
+    List<Todo> page = full ? rows.subList(0, safeSize) : rows;
+    // Rows stamped just before commit can still appear behind a fresh watermark,
+    // so it never moves past now - settleLag and the recent tail is sent again.
+    TodoWatermark settled = new TodoWatermark(LocalDateTime.now().minus(settleLag), 0L);
+    TodoWatermark next;
+    boolean capped = false;
+    if (page.isEmpty()) {
+      next = from != null ? from : settled;
+    } else {
+      next = TodoWatermark.after(page.get(page.size() - 1));
+      if (settled.isBefore(next)) {
+        next = from != null && settled.isBefore(from) ? from : settled;
+        capped = true;
+      }
+    }
+    List<Todo> live = page.stream().filter(todo -> todo.getDeletedAt() == null).toList();
+    List<TodoChanges.Deleted> deleted = page.stream()
+        .filter(todo -> todo.getDeletedAt() != null)
+        .map(todo -> new TodoChanges.Deleted(todo.getId(), todo.getDeletedAt()))
+        .toList();
+    return new TodoChanges(toViews(live, locale), deleted, next.encode(), full && !capped);
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<String> findVisibleEtag(long id, long userId, Locale locale) {
+    TodoVersionRow row = todoMapper.findVisibleVersion(id, userId);
+    if (row == null) {
+      return Optional.empty();
+    }
+    List<Long> groupIds = todoMapper.findGroupLinks(List.of(id)).stream().map(TodoGroupLink::getGroupId).toList();
+    return Optional.of(TodoEtags.of(id, row.getVersion(),
+        referenceDataCache.labelsTag(row.getCategoryId(), groupIds, locale)));
+  }
+
+  public String etag(TodoView view, Locale locale) {
+    List<Long> groupIds = view.groups().stream().map(TodoView.GroupRef::id).toList();
+    return TodoEtags.of(view.id(), view.version(), referenceDataCache.labelsTag(view.categoryId(), groupIds, locale));
+  }
+
+  public String etag(Todo todo, Locale locale) {
+    return etag(toView(todo, locale), locale);
+  }
+
+  public TodoView toView(Todo todo, Locale locale) {
+    List<Long> groupIds = todo.getGroups() == null ? List.of() : todo.getGroups().stream()
+        .map(Group::getId)
+        .filter(Objects::nonNull)
+        .toList();
+    return toView(todo, groupIds, locale);
+  }
+
+  private List<TodoView> toViews(List<Todo> todos, Locale locale) {
+    if (todos.isEmpty()) {
+      return List.of();
+    }
+    List<Long> todoIds = todos.stream().map(Todo::getId).toList();
+    Map<Long, List<Long>> groupIdsByTodo = new HashMap<>();
+    for (TodoGroupLink link : todoMapper.findGroupLinks(todoIds)) {
+      groupIdsByTodo.computeIfAbsent(link.getTodoId(), id -> new ArrayList<>()).add(link.getGroupId());
+    }
+    return todos.stream()
+        .map(todo -> toView(todo, groupIdsByTodo.getOrDefault(todo.getId(), List.of()), locale))
+        .toList();
+  }
+
+  private TodoView toView(Todo todo, List<Long> groupIds, Locale locale) {
+    Map<Long, String> groupLabels = referenceDataCache.groupLabels(locale);
+    List<TodoView.GroupRef> groups = groupIds.stream()
+        .sorted(Comparator.naturalOrder())
+        .map(id -> new TodoView.GroupRef(id, groupLabels.get(id)))
+        .toList();
+    Category category = todo.getCategory();
+    Long categoryId = category == null ? null : category.getId();
+    String categoryName = categoryId == null ? null
+        : referenceDataCache.categoryLabels(locale).getOrDefault(categoryId, category.getName());
+    return new TodoView(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getAuthor(), todo.getDueDate(),
+        todo.getPriority(), todo.getStatus(), categoryId, categoryName,
+        category == null ? null : category.getColor(),
+        todo.getUser() == null ? null : todo.getUser().getId(),
+        groups, todo.getVersion(), todo.getCreatedAt(), todo.getUpdatedAt());
+  }
+}
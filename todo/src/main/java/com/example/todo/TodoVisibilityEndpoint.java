@@ -0,0 +1,39 @@
+package com.example.todo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "todovisibility")
+public class TodoVisibilityEndpoint {
+
+  private final TodoVisibilityService todoVisibilityService;
+
+  public TodoVisibilityEndpoint(TodoVisibilityService todoVisibilityService) {
+    this.todoVisibilityService = todoVisibilityService;
+  }
+
+  @ReadOperation
+  public Map<String, Object> check() {
+    TodoVisibilityReport report = todoVisibilityService.check();
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("consistent", report.isConsistent());
+    body.put("rows", report.rows());
+    body.put("missing", report.missing());
+    body.put("stale", report.stale());
+    return body;
+  }
+
+  @WriteOperation
+  public Map<String, Object> rebuild() {
+    int rows = todoVisibilityService.rebuild();
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("rebuilt", rows);
+    body.putAll(check());
+    return body;
+  }
+}
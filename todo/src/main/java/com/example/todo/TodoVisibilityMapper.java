@@ -0,0 +1,34 @@
+package com.example.todo;
+
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface TodoVisibilityMapper {
+
+  int deleteByTodoId(@Param("todoId") long todoId);
+
+  int insertForTodo(@Param("todoId") long todoId);
+
+  int deleteByTodoIds(@Param("todoIds") List<Long> todoIds);
+
+  int insertForTodos(@Param("todoIds") List<Long> todoIds);
+
+  int deleteByUserId(@Param("userId") long userId);
+
+  int insertForUser(@Param("userId") long userId);
+
+  int deleteAll();
+
+  int insertAll();
+
+  List<TodoVisibilityRow> findByTodoIdsAndUserIds(@Param("todoIds") List<Long> todoIds,
+      @Param("userIds") List<Long> userIds);
+
+  long countAll();
+
+  long countMissing();
+
+  long countStale();
+}
@@ -0,0 +1,8 @@
+package com.example.todo;
+
+public record TodoVisibilityReport(long rows, long missing, long stale) {
+
+  public boolean isConsistent() {
+    return missing == 0 && stale == 0;
+  }
+}
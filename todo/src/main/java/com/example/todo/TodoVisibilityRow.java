@@ -0,0 +1,9 @@
+package com.example.todo;
+
+import lombok.Data;
+
+@Data
+public class TodoVisibilityRow {
+  private Long userId;
+  private Long todoId;
+}
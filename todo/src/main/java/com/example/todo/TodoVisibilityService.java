@@ -0,0 +1,74 @@
+package com.example.todo;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class TodoVisibilityService {
+
+  private static final Logger log = LoggerFactory.getLogger(TodoVisibilityService.class);
+  private final TodoVisibilityMapper todoVisibilityMapper;
+
+  public TodoVisibilityService(TodoVisibilityMapper todoVisibilityMapper) {
+    this.todoVisibilityMapper = todoVisibilityMapper;
+  }
+
+  @Transactional
+  public void refreshTodo(long todoId) {
+    todoVisibilityMapper.deleteByTodoId(todoId);
+    todoVisibilityMapper.insertForTodo(todoId);
+  }
+
+  @Transactional
+  public void refreshTodos(List<Long> todoIds) {
+    if (todoIds == null || todoIds.isEmpty()) {
+      return;
+    }
+    todoVisibilityMapper.deleteByTodoIds(todoIds);
+    todoVisibilityMapper.insertForTodos(todoIds);
+  }
+
+  @Transactional
+  public void refreshUser(long userId) {
+    todoVisibilityMapper.deleteByUserId(userId);
+    todoVisibilityMapper.insertForUser(userId);
+  }
+
+  @Transactional
+  public void removeTodo(long todoId) {
+    todoVisibilityMapper.deleteByTodoId(todoId);
+  }
+
+  @Transactional
+  public void removeUser(long userId) {
+    todoVisibilityMapper.deleteByUserId(userId);
+  }
+
+  @Transactional
+  public int rebuild() {
+    todoVisibilityMapper.deleteAll();
+    int rows = todoVisibilityMapper.insertAll();
+    log.info("todo_visibility rebuilt rows={}", rows);
+    return rows;
+  }
+
+  @Transactional(readOnly = true)
+  public TodoVisibilityReport check() {
+    return new TodoVisibilityReport(
+        todoVisibilityMapper.countAll(),
+        todoVisibilityMapper.countMissing(),
+        todoVisibilityMapper.countStale());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildIfEmpty() {
+    if (todoVisibilityMapper.countAll() == 0 && todoVisibilityMapper.countMissing() > 0) {
+      rebuild();
+    }
+  }
+}
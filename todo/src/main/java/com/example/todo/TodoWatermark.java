@@ -0,0 +1,36 @@
+package com.example.todo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record TodoWatermark(LocalDateTime updatedAt, long id) {
+
+  public static TodoWatermark after(Todo todo) {
+    return new TodoWatermark(todo.getUpdatedAt(), todo.getId());
+  }
+
+  public static TodoWatermark decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\n", 2);
+      if (parts.length != 2) {
+        throw new BusinessException("ウォーターマークが不正です。");
+      }
+      return new TodoWatermark(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      throw new BusinessException("ウォーターマークが不正です。");
+    }
+  }
+
+  public String encode() {
+    String raw = updatedAt + "\n" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public boolean isBefore(TodoWatermark other) {
+    int cmp = updatedAt.compareTo(other.updatedAt);
+    return cmp < 0 || (cmp == 0 && id < other.id);
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.todo;
+
+public class TooManySubscriptionsException extends RuntimeException {
+  public TooManySubscriptionsException(String message) {
+    super(message);
+  }
+}
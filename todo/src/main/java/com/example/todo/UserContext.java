@@ -0,0 +1,28 @@
+package com.example.todo;
+
+import java.util.Collection;
+import java.util.Set;
+
+public record UserContext(long id, String username, Set<String> roles, Set<Long> groupIds) {
+
+  public boolean owns(Todo todo) {
+    return todo != null && todo.getUser() != null && todo.getUser().getId() != null
+        && todo.getUser().getId().longValue() == id;
+  }
+
+  public boolean sharesGroupWith(Collection<Group> groups) {
+    if (groups == null || groups.isEmpty() || groupIds.isEmpty()) {
+      return false;
+    }
+    for (Group group : groups) {
+      if (group != null && group.getId() != null && groupIds.contains(group.getId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean canAccess(Todo todo) {
+    return owns(todo) || (todo != null && sharesGroupWith(todo.getGroups()));
+  }
+}
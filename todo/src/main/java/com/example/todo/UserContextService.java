@@ -0,0 +1,110 @@
+package com.example.todo;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class UserContextService {
+
+  private final AppUserRepository appUserRepository;
+  private final long ttlNanos;
+  private final ConcurrentHashMap<Long, Entry> contexts = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Long> usernameIndex = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  public UserContextService(AppUserRepository appUserRepository,
+      @Value("${app.user-context.ttl:5m}") Duration ttl) {
+    this.appUserRepository = appUserRepository;
+    this.ttlNanos = ttl.toNanos();
+  }
+
+  public Optional<UserContext> findByUsername(String username) {
+    if (username == null) {
+      return Optional.empty();
+    }
+    Long id = usernameIndex.get(username);
+    UserContext cached = id == null ? null : fresh(id);
+    if (cached != null && username.equals(cached.username())) {
+      return Optional.of(cached);
+    }
+    long loadedAt = generation.get();
+    return appUserRepository.findWithDefaultGroupsByUsername(username).map(user -> store(user, loadedAt));
+  }
+
+  public Optional<UserContext> findById(long userId) {
+    UserContext cached = fresh(userId);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    long loadedAt = generation.get();
+    return appUserRepository.findWithDefaultGroupsById(userId).map(user -> store(user, loadedAt));
+  }
+
+  public void invalidate(long userId) {
+    evict(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evict(userId);
+        }
+      });
+    }
+  }
+
+  private void evict(long userId) {
+    generations.put(userId, generation.incrementAndGet());
+    contexts.remove(userId);
+    usernameIndex.values().removeIf(id -> id == userId);
+  }
+
+  private boolean invalidatedSince(long userId, long loadedAt) {
+    return generations.getOrDefault(userId, 0L) > loadedAt;
+  }
+
+  private UserContext fresh(long userId) {
+    Entry entry = contexts.get(userId);
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.loadedAt >= ttlNanos) {
+      contexts.remove(userId, entry);
+      return null;
+    }
+    return entry.context;
+  }
+
+  private UserContext store(AppUser user, long loadedAt) {
+    Set<String> roles = user.getRoles() == null ? Set.of() : Arrays.stream(user.getRoles().split(","))
+        .map(String::trim)
+        .filter(role -> !role.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+    Set<Long> groupIds = user.getDefaultGroups() == null ? Set.of() : user.getDefaultGroups().stream()
+        .filter(g -> g != null && g.getId() != null)
+        .map(Group::getId)
+        .collect(Collectors.toUnmodifiableSet());
+    UserContext context = new UserContext(user.getId(), user.getUsername(), roles, groupIds);
+    if (invalidatedSince(context.id(), loadedAt)) {
+      return context;
+    }
+    Entry entry = new Entry(context, System.nanoTime());
+    contexts.put(context.id(), entry);
+    usernameIndex.put(context.username(), context.id());
+    if (invalidatedSince(context.id(), loadedAt)) {
+      contexts.remove(context.id(), entry);
+    }
+    return context;
+  }
+
+  private record Entry(UserContext context, long loadedAt) {}
+}
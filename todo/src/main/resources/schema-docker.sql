@@ -1,3 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE SEQUENCE IF NOT EXISTS todo_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS todo_attachment_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS categories (
   id BIGSERIAL PRIMARY KEY,
   name VARCHAR(50) NOT NULL,
@@ -25,8 +30,26 @@ ALTER TABLE groups
   ADD CONSTRAINT IF NOT EXISTS fk_groups_parent
   FOREIGN KEY (parent_id) REFERENCES groups(id);
 
+CREATE TABLE IF NOT EXISTS group_closure (
+  ancestor_id BIGINT NOT NULL,
+  descendant_id BIGINT NOT NULL,
+  depth INT NOT NULL,
+  PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+ALTER TABLE group_closure
+  ADD CONSTRAINT IF NOT EXISTS fk_group_closure_ancestor
+  FOREIGN KEY (ancestor_id) REFERENCES groups(id);
+
+ALTER TABLE group_closure
+  ADD CONSTRAINT IF NOT EXISTS fk_group_closure_descendant
+  FOREIGN KEY (descendant_id) REFERENCES groups(id);
+
+CREATE INDEX IF NOT EXISTS idx_group_closure_descendant
+  ON group_closure (descendant_id);
+
 CREATE TABLE IF NOT EXISTS todos (
-  id BIGSERIAL PRIMARY KEY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('todo_seq'),
   author VARCHAR(50) NOT NULL,
   title VARCHAR(100) NOT NULL,
   description VARCHAR(500),
@@ -49,6 +72,24 @@ ALTER TABLE todos
   ADD CONSTRAINT IF NOT EXISTS fk_todos_user
   FOREIGN KEY (user_id) REFERENCES users(id);
 
+CREATE INDEX IF NOT EXISTS idx_todos_created_at_id
+  ON todos (created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_todos_title_id
+  ON todos (title, id);
+
+CREATE INDEX IF NOT EXISTS idx_todos_due_date_id
+  ON todos (due_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_todos_status_id
+  ON todos (status, id);
+
+CREATE INDEX IF NOT EXISTS idx_todos_updated_at_id
+  ON todos (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_todos_search_trgm
+  ON todos USING gin ((title || ' ' || COALESCE(description, '')) gin_trgm_ops);
+
 CREATE TABLE IF NOT EXISTS todo_groups (
   todo_id BIGINT NOT NULL,
   group_id BIGINT NOT NULL,
@@ -77,6 +118,15 @@ ALTER TABLE user_groups
   ADD CONSTRAINT IF NOT EXISTS fk_user_groups_group
   FOREIGN KEY (group_id) REFERENCES groups(id);
 
+CREATE TABLE IF NOT EXISTS todo_visibility (
+  user_id BIGINT NOT NULL,
+  todo_id BIGINT NOT NULL,
+  PRIMARY KEY (user_id, todo_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_todo_visibility_todo_id
+  ON todo_visibility (todo_id);
+
 CREATE TABLE IF NOT EXISTS audit_logs (
   id BIGSERIAL PRIMARY KEY,
   action VARCHAR(100) NOT NULL,
@@ -93,7 +143,7 @@ CREATE INDEX IF NOT EXISTS idx_audit_logs_created_at
   ON audit_logs (created_at);
 
 CREATE TABLE IF NOT EXISTS todo_attachments (
-  id BIGSERIAL PRIMARY KEY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('todo_attachment_seq'),
   todo_id BIGINT NOT NULL,
   original_filename VARCHAR(255) NOT NULL,
   stored_filename VARCHAR(255) NOT NULL,
@@ -105,3 +155,79 @@ CREATE TABLE IF NOT EXISTS todo_attachments (
 ALTER TABLE todo_attachments
   ADD CONSTRAINT IF NOT EXISTS fk_todo_attachments_todo
   FOREIGN KEY (todo_id) REFERENCES todos(id);
+
+CREATE TABLE IF NOT EXISTS export_jobs (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  gzip BOOLEAN NOT NULL,
+  keyword VARCHAR(255),
+  sort VARCHAR(20),
+  direction VARCHAR(10),
+  category_id BIGINT,
+  group_id BIGINT,
+  status_filter VARCHAR(20),
+  locale VARCHAR(35),
+  filename VARCHAR(255),
+  stored_filename VARCHAR(255),
+  row_count BIGINT,
+  size BIGINT,
+  error_message VARCHAR(1000),
+  created_at TIMESTAMP NOT NULL,
+  started_at TIMESTAMP,
+  completed_at TIMESTAMP,
+  expires_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_user_status
+  ON export_jobs (user_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_expires_at
+  ON export_jobs (expires_at);
+
+CREATE TABLE IF NOT EXISTS mail_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  kind VARCHAR(50) NOT NULL,
+  recipient VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  body TEXT NOT NULL,
+  html BOOLEAN NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  attempts INT NOT NULL,
+  next_attempt_at TIMESTAMP NOT NULL,
+  last_error VARCHAR(1000),
+  created_at TIMESTAMP NOT NULL,
+  sent_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_status_next
+  ON mail_outbox (status, next_attempt_at, id);
+
+CREATE TABLE IF NOT EXISTS reminder_schedule (
+  todo_id BIGINT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  fire_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_reminder_schedule_fire_at
+  ON reminder_schedule (fire_at, user_id);
+
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+  name VARCHAR(100) PRIMARY KEY,
+  locked_by VARCHAR(255) NOT NULL,
+  locked_at TIMESTAMP NOT NULL,
+  locked_until TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  idempotency_key VARCHAR(200) PRIMARY KEY,
+  fingerprint VARCHAR(100) NOT NULL,
+  status_code INT,
+  response_body TEXT,
+  etag VARCHAR(100),
+  resource_id BIGINT,
+  expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at
+  ON idempotency_keys (expires_at);
@@ -0,0 +1,53 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class AppUserServiceTest {
+
+  @Autowired
+  private AppUserService appUserService;
+
+  @Autowired
+  private GroupRepository groupRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName("save/delete: 所属グループの変更と同じトランザクションで可視範囲を更新する")
+  void saveAndDelete_refreshVisibility() {
+    Group group = groupRepository.findByNameIgnoreCaseAndType("Project Apollo", GroupType.PROJECT).orElseThrow();
+    Long todoId = jdbcTemplate.queryForObject(
+        "SELECT MIN(t.id) FROM todos t JOIN users u ON u.id = t.user_id WHERE u.username = 'user'", Long.class);
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (?, ?)", todoId, group.getId());
+
+    AppUser member = appUserService.save(AppUser.builder()
+        .username("member")
+        .email("member@example.com")
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .enabled(true)
+        .defaultGroups(new HashSet<>(Set.of(group)))
+        .build());
+
+    assertThat(jdbcTemplate.queryForList(
+        "SELECT todo_id FROM todo_visibility WHERE user_id = ?", Long.class, member.getId()))
+        .containsExactly(todoId);
+
+    appUserService.delete(member);
+
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todo_visibility WHERE user_id = ?", Long.class, member.getId())).isZero();
+  }
+}
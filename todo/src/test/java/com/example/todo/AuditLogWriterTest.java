@@ -0,0 +1,110 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+  @Mock
+  private AuditLogMapper auditLogMapper;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("enqueue: バッチサイズに達したらまとめて1回のINSERTで書き込む")
+  void enqueue_writesBatchWhenSizeReached() {
+    AuditLogWriter writer = writer(100, 3, AuditOverflowPolicy.CALLER_RUNS);
+
+    writer.enqueueAll(List.of(entry("A"), entry("B"), entry("C")));
+
+    verify(auditLogMapper, timeout(2000)).insertAll(argThat(logs -> logs.size() == 3));
+    writer.shutdown();
+  }
+
+  @Test
+  @DisplayName("shutdown: キューに残った監査ログを書き出してから終了する")
+  void shutdown_drainsQueue() {
+    AuditLogWriter writer = writer(100, 100, AuditOverflowPolicy.CALLER_RUNS);
+    writer.enqueue(entry("A"));
+    writer.enqueue(entry("B"));
+
+    writer.shutdown();
+
+    verify(auditLogMapper).insertAll(argThat(logs -> logs.size() == 2));
+  }
+
+  @Test
+  @DisplayName("enqueue: キューが満杯でCALLER_RUNSなら呼び出し元で別トランザクションとして即時に書き込む")
+  void enqueue_callerRunsWhenFull() {
+    AuditLogWriter writer = writer(1, 100, AuditOverflowPolicy.CALLER_RUNS);
+
+    writer.enqueue(entry("queued"));
+    writer.enqueue(entry("overflow"));
+
+    verify(auditLogMapper).insertAll(argThat(logs -> logs.size() == 1
+        && "overflow".equals(logs.get(0).getAction())));
+    verify(transactionManager).getTransaction(argThat(definition ->
+        definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+  }
+
+  @Test
+  @DisplayName("enqueue: キューが満杯でDROPなら破棄して件数を記録する")
+  void enqueue_dropsWhenFull() {
+    AuditLogWriter writer = writer(1, 100, AuditOverflowPolicy.DROP);
+
+    writer.enqueue(entry("queued"));
+    writer.enqueue(entry("overflow"));
+
+    verify(auditLogMapper, never()).insertAll(anyList());
+    assertThat(meterRegistry.get("todo.audit.dropped").counter().count()).isEqualTo(1.0);
+    writer.flush();
+    verify(auditLogMapper).insertAll(argThat(logs -> logs.size() == 1
+        && "queued".equals(logs.get(0).getAction())));
+  }
+
+  @Test
+  @DisplayName("flush: 複数行INSERTが失敗したら1行ずつ書き直す")
+  void flush_retriesRowByRowOnBatchFailure() {
+    AuditLogWriter writer = writer(100, 100, AuditOverflowPolicy.CALLER_RUNS);
+    doThrow(new IllegalStateException("boom")).when(auditLogMapper)
+        .insertAll(argThat(logs -> logs.size() > 1));
+    writer.enqueueAll(List.of(entry("A"), entry("B")));
+
+    writer.flush();
+
+    verify(auditLogMapper, times(2)).insertAll(argThat(logs -> logs.size() == 1));
+  }
+
+  private AuditLogWriter writer(int capacity, int batchSize, AuditOverflowPolicy policy) {
+    return new AuditLogWriter(auditLogMapper, new AuditPayloadSerializer(new ObjectMapper(), 4000, 500),
+        transactionManager, mock(NotificationService.class), meterRegistry, capacity, batchSize, Duration.ofHours(1), policy);
+  }
+
+  private AuditLog entry(String action) {
+    return AuditLog.builder().action(action).createdAt(LocalDateTime.now()).build();
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ClusterLockServiceTest {
+
+  @Autowired
+  private ClusterLockService clusterLockService;
+
+  @Autowired
+  private SchedulerLockMapper schedulerLockMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("tryAcquire: 保持中のロックは取得できず、解放後は再取得できる")
+  void tryAcquire_isExclusiveUntilReleased() {
+    Optional<ClusterLockService.Lock> first = clusterLockService.tryAcquire("test-exclusive", Duration.ofMinutes(5));
+    assertThat(first).isPresent();
+    assertThat(clusterLockService.tryAcquire("test-exclusive", Duration.ofMinutes(5))).isEmpty();
+
+    first.get().close();
+
+    Optional<ClusterLockService.Lock> again = clusterLockService.tryAcquire("test-exclusive", Duration.ofMinutes(5));
+    assertThat(again).isPresent();
+    again.get().close();
+    assertThat(meterRegistry.get("todo.scheduler.lock.held").tag("name", "test-exclusive").timer().count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("tryAcquire: 他ノードのリースが切れたらロックを引き継ぐ")
+  void tryAcquire_takesOverExpiredLease() {
+    LocalDateTime now = LocalDateTime.now();
+    schedulerLockMapper.insert("test-takeover", "dead-node", now, now.plusMinutes(5));
+
+    assertThat(clusterLockService.tryAcquire("test-takeover", Duration.ofMinutes(5))).isEmpty();
+
+    schedulerLockMapper.release("test-takeover", "dead-node", now.minusSeconds(1));
+
+    Optional<ClusterLockService.Lock> lock = clusterLockService.tryAcquire("test-takeover", Duration.ofMinutes(5));
+    assertThat(lock).isPresent();
+    lock.get().close();
+  }
+
+  @Test
+  @DisplayName("tryAcquire: lockAtLeastForの間は解放後も他の実行がロックを取れない")
+  void tryAcquire_holdsLockAtLeastForMinimum() {
+    Optional<ClusterLockService.Lock> lock = clusterLockService.tryAcquire("test-at-least",
+        Duration.ofMinutes(5), Duration.ofMinutes(5));
+    assertThat(lock).isPresent();
+    lock.get().close();
+
+    assertThat(clusterLockService.tryAcquire("test-at-least", Duration.ofMinutes(5))).isEmpty();
+  }
+
+  @Test
+  @DisplayName("起動時: 戻り値のある@ClusterLockedメソッドは拒否する")
+  void aspect_rejectsNonVoidTargets() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("job", new RootBeanDefinition(NonVoidJob.class));
+    ClusterLockAspect aspect = new ClusterLockAspect(clusterLockService, beanFactory);
+
+    assertThatThrownBy(aspect::afterSingletonsInstantiated)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("count");
+  }
+
+  static class NonVoidJob {
+    @ClusterLocked(name = "non-void")
+    public int count() {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportJobServiceTest {
+
+  @Mock
+  private ExportJobRepository exportJobRepository;
+
+  @Mock
+  private TodoService todoService;
+
+  @Mock
+  private FileStorageService fileStorageService;
+
+  private ExportJobService exportJobService;
+
+  @BeforeEach
+  void setUp() {
+    exportJobService = new ExportJobService(exportJobRepository, todoService, fileStorageService,
+        2, 1, Duration.ofHours(24), Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    exportJobService.shutdown();
+  }
+
+  @Test
+  @DisplayName("submit: 実行中ジョブが上限に達したユーザーは新しいエクスポートを登録できない")
+  void submit_rejectsWhenUserLimitReached() {
+    when(exportJobRepository.countByUserIdAndStatusIn(eq(1L), anyCollection())).thenReturn(2L);
+
+    assertThatThrownBy(() -> exportJobService.submit(1L, new ExportJobRequest(), Locale.JAPANESE))
+        .isInstanceOf(BusinessException.class);
+    verify(exportJobRepository, never()).save(any());
+  }
+
+  @Test
+  @DisplayName("run: 一覧と同じ条件で書き出したgzipファイルを保存し、完了状態にする")
+  void run_writesGzipArtifactWithListFilter() throws Exception {
+    ExportJob job = ExportJob.builder()
+        .id(5L).userId(1L).status(ExportJobStatus.PENDING).gzip(true)
+        .keyword("report").statusFilter("PLANNED").locale("ja")
+        .filename("todo_20260101.csv.gz").createdAt(LocalDateTime.now())
+        .build();
+    when(exportJobRepository.findById(5L)).thenReturn(Optional.of(job));
+    when(exportJobRepository.start(eq(5L), any())).thenReturn(1);
+    when(exportJobRepository.complete(eq(5L), eq("stored.gz"), anyLong(), eq(1L), any(), any())).thenReturn(1);
+    when(todoService.writeExport(eq(1L), eq("report"), eq(null), eq(null), eq(null), eq(null), eq("PLANNED"),
+        eq(Locale.JAPANESE), any(OutputStream.class))).thenAnswer(invocation -> {
+          invocation.getArgument(8, OutputStream.class).write("ID\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+          return 1L;
+        });
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    when(fileStorageService.write(eq("todo_20260101.csv.gz"), eq("application/gzip"), any()))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(2, FileStorageService.ContentWriter.class).writeTo(written);
+          return new FileStorageService.StoredFile("todo_20260101.csv.gz", "stored.gz", "application/gzip",
+              written.size());
+        });
+
+    exportJobService.run(5L);
+
+    ArgumentCaptor<LocalDateTime> completedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(exportJobRepository).complete(eq(5L), eq("stored.gz"), eq((long) written.size()), eq(1L),
+        completedAt.capture(), expiresAt.capture());
+    assertThat(expiresAt.getValue()).isAfter(completedAt.getValue());
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(written.toByteArray()))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("ID\r\n1\r\n");
+    }
+  }
+
+  @Test
+  @DisplayName("purgeExpired: 保持期限を過ぎた成果物を削除して期限切れにする")
+  void purgeExpired_deletesArtifacts() {
+    ExportJob job = ExportJob.builder()
+        .id(7L).userId(1L).status(ExportJobStatus.COMPLETED).storedFilename("old.csv")
+        .createdAt(LocalDateTime.now().minusDays(2)).expiresAt(LocalDateTime.now().minusDays(1))
+        .build();
+    when(exportJobRepository.findAllByStatusInAndCreatedAtBefore(anyCollection(), any())).thenReturn(List.of());
+    when(exportJobRepository.findAllByStatusInAndExpiresAtBefore(anyCollection(), any())).thenReturn(List.of(job));
+
+    exportJobService.purgeExpired();
+
+    verify(fileStorageService).delete("old.csv");
+    verify(exportJobRepository).expire(7L, ExportJobStatus.COMPLETED);
+  }
+
+  @Test
+  @DisplayName("run: 実行中にタイムアウトで打ち切られたジョブは完了にせず成果物を削除する")
+  void run_discardsArtifactWhenJobWasClosedMeanwhile() {
+    ExportJob job = ExportJob.builder()
+        .id(6L).userId(1L).status(ExportJobStatus.PENDING).filename("todo.csv").createdAt(LocalDateTime.now())
+        .build();
+    when(exportJobRepository.findById(6L)).thenReturn(Optional.of(job));
+    when(exportJobRepository.start(eq(6L), any())).thenReturn(1);
+    when(fileStorageService.write(eq("todo.csv"), any(), any()))
+        .thenReturn(new FileStorageService.StoredFile("todo.csv", "late.csv", "text/csv", 0));
+    when(exportJobRepository.complete(eq(6L), eq("late.csv"), anyLong(), anyLong(), any(), any())).thenReturn(0);
+
+    exportJobService.run(6L);
+
+    verify(fileStorageService).delete("late.csv");
+    verify(exportJobRepository, never()).fail(eq(6L), any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("purgeExpired: タイムアウトしたジョブは取得時の状態のままの場合だけFAILEDにする")
+  void purgeExpired_failsTimedOutJobsOnlyFromTheirObservedStatus() {
+    ExportJob running = ExportJob.builder()
+        .id(8L).userId(1L).status(ExportJobStatus.RUNNING).createdAt(LocalDateTime.now().minusHours(2))
+        .build();
+    when(exportJobRepository.findAllByStatusInAndCreatedAtBefore(anyCollection(), any()))
+        .thenReturn(List.of(running));
+    when(exportJobRepository.findAllByStatusInAndExpiresAtBefore(anyCollection(), any())).thenReturn(List.of());
+
+    exportJobService.purgeExpired();
+
+    verify(exportJobRepository).fail(eq(8L), eq(ExportJobStatus.RUNNING), any(), any(), any());
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.todo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class FakeSmtpServer {
+
+  private final ServerSocket serverSocket;
+  private final List<String> messages = new CopyOnWriteArrayList<>();
+  private final AtomicInteger sessions = new AtomicInteger();
+
+  private FakeSmtpServer(ServerSocket serverSocket) {
+    this.serverSocket = serverSocket;
+  }
+
+  static FakeSmtpServer start() {
+    try {
+      FakeSmtpServer server = new FakeSmtpServer(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+      Thread thread = new Thread(server::serve, "fake-smtp");
+      thread.setDaemon(true);
+      thread.start();
+      return server;
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  List<String> messages() {
+    return messages;
+  }
+
+  int sessions() {
+    return sessions.get();
+  }
+
+  void reset() {
+    messages.clear();
+    sessions.set(0);
+  }
+
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try (Socket socket = serverSocket.accept()) {
+        sessions.incrementAndGet();
+        handle(socket);
+      } catch (IOException ex) {
+        // the client dropped the connection; wait for the next one
+      }
+    }
+  }
+
+  private void handle(Socket socket) throws IOException {
+    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    reply(out, "220 localhost ESMTP");
+    String line;
+    while ((line = in.readLine()) != null) {
+      String command = line.toUpperCase(Locale.ROOT);
+      if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+        reply(out, "250 localhost");
+      } else if (command.startsWith("RCPT TO") && command.contains("REJECT")) {
+        reply(out, "550 5.1.1 mailbox unavailable");
+      } else if (command.equals("DATA")) {
+        reply(out, "354 end data with <CR><LF>.<CR><LF>");
+        StringBuilder data = new StringBuilder();
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+          data.append(line).append('\n');
+        }
+        messages.add(data.toString());
+        reply(out, "250 OK");
+      } else if (command.equals("QUIT")) {
+        reply(out, "221 bye");
+        return;
+      } else {
+        reply(out, "250 OK");
+      }
+    }
+  }
+
+  private void reply(Writer out, String line) throws IOException {
+    out.write(line + "\r\n");
+    out.flush();
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class IdempotencyStoreTest {
+
+  private IdempotencyStore store(int maxEntries) {
+    return new IdempotencyStore(mock(IdempotencyKeyMapper.class), mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry(), Duration.ofHours(24), maxEntries, 24, false);
+  }
+
+  @Test
+  @DisplayName("claim: 完了済みのキーは保存したレスポンスを返し、処理中のキーは未完了として返す")
+  void claim_returnsStoredResponseForReplayedKey() {
+    IdempotencyStore store = store(100);
+
+    assertThat(store.claim("api:1:a", "fp")).isEmpty();
+    Optional<IdempotencyRecord> inFlight = store.claim("api:1:a", "fp");
+    assertThat(inFlight).isPresent();
+    assertThat(inFlight.get().isCompleted()).isFalse();
+
+    store.complete("api:1:a", 201, "{\"id\":7}", "\"todo-7-0\"", 7L);
+
+    assertThat(inFlight.get().isCompleted()).isFalse();
+    IdempotencyRecord replayed = store.claim("api:1:a", "fp").orElseThrow();
+    assertThat(replayed.getFingerprint()).isEqualTo("fp");
+    assertThat(replayed.getStatusCode()).isEqualTo(201);
+    assertThat(replayed.getResponseBody()).isEqualTo("{\"id\":7}");
+    assertThat(replayed.getEtag()).isEqualTo("\"todo-7-0\"");
+    assertThat(replayed.getResourceId()).isEqualTo(7L);
+  }
+
+  @Test
+  @DisplayName("claim: 期限切れや解放済みのキーは再度処理できる")
+  void claim_allowsExpiredOrReleasedKey() throws InterruptedException {
+    IdempotencyStore store = store(100);
+
+    assertThat(store.claim("submit:1:x", "x", Duration.ofMillis(1))).isEmpty();
+    Thread.sleep(10);
+    assertThat(store.claim("submit:1:x", "x", Duration.ofMillis(1))).isEmpty();
+
+    assertThat(store.claim("api:1:b", "fp")).isEmpty();
+    store.release("api:1:b");
+    assertThat(store.claim("api:1:b", "fp")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("claim: 上限を超えると期限の近いバケットから追い出す")
+  void claim_evictsOldestBucketWhenFull() {
+    IdempotencyStore store = store(3);
+
+    assertThat(store.claim("old", "fp", Duration.ofMinutes(1))).isEmpty();
+    for (int i = 0; i < 3; i++) {
+      assertThat(store.claim("new-" + i, "fp")).isEmpty();
+    }
+
+    assertThat(store.size()).isLessThanOrEqualTo(3);
+    assertThat(store.claim("old", "fp", Duration.ofMinutes(1))).isEmpty();
+    assertThat(store.claim("new-0", "fp")).isPresent();
+  }
+
+  @Test
+  @DisplayName("complete: 共有モードではローカルから追い出された後もDBの行を完了にする")
+  void complete_updatesSharedRowAfterLocalEviction() {
+    IdempotencyKeyMapper mapper = mock(IdempotencyKeyMapper.class);
+    IdempotencyStore store = new IdempotencyStore(mapper, mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry(), Duration.ofHours(24), 1, 24, true);
+
+    assertThat(store.claim("api:1:a", "fp")).isEmpty();
+    assertThat(store.claim("api:1:b", "fp")).isEmpty();
+    store.complete("api:1:a", 201, "{}", null, 7L);
+
+    verify(mapper).complete(argThat(record -> "api:1:a".equals(record.getIdempotencyKey())
+        && record.getStatusCode() == 201 && "{}".equals(record.getResponseBody())));
+  }
+}
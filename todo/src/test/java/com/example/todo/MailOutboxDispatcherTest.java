@@ -0,0 +1,130 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:mailoutbox;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.mail.host=127.0.0.1",
+    "spring.mail.username=",
+    "spring.mail.password=",
+    "spring.mail.properties.mail.smtp.auth=false",
+    "spring.mail.properties.mail.smtp.starttls.enable=false",
+    "spring.mail.properties.mail.smtp.starttls.required=false",
+    "app.mail.from=noreply@example.com",
+    "app.mail.outbox.poll-interval=1h",
+    "app.mail.outbox.max-attempts=2",
+    "app.mail.outbox.rate-per-second=100"
+})
+class MailOutboxDispatcherTest {
+
+  private static final FakeSmtpServer SMTP = FakeSmtpServer.start();
+
+  @DynamicPropertySource
+  static void smtpProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.mail.port", SMTP::port);
+  }
+
+  @Autowired
+  private MailService mailService;
+
+  @Autowired
+  private MailOutboxDispatcher dispatcher;
+
+  @Autowired
+  private MailOutboxRepository mailOutboxRepository;
+
+  @AfterEach
+  void tearDown() {
+    mailOutboxRepository.deleteAll();
+    SMTP.reset();
+  }
+
+  @Test
+  @DisplayName("dispatch: 保留中のメールを1つのSMTPセッションでまとめて送信する")
+  void dispatch_sendsPendingMailsInOneSession() {
+    for (int i = 1; i <= 3; i++) {
+      mailService.sendTodoCreated(user("user" + i + "@example.com"), todo("Todo " + i));
+    }
+    assertThat(mailOutboxRepository.findAll())
+        .allMatch(mail -> mail.getStatus() == MailOutboxStatus.PENDING);
+
+    int dispatched = dispatcher.dispatch();
+
+    assertThat(dispatched).isEqualTo(3);
+    assertThat(SMTP.messages()).hasSize(3);
+    assertThat(SMTP.sessions()).isEqualTo(1);
+    assertThat(mailOutboxRepository.findAll())
+        .allMatch(mail -> mail.getStatus() == MailOutboxStatus.SENT && mail.getSentAt() != null);
+    assertThat(dispatcher.dispatch()).isZero();
+  }
+
+  @Test
+  @DisplayName("dispatch: 送信失敗はバックオフ後に再送し、上限回数でFAILEDになる")
+  void dispatch_retriesWithBackoffThenFails() {
+    mailService.sendTodoCreated(user("ok@example.com"), todo("Accepted"));
+    mailService.sendTodoCreated(user("reject@example.com"), todo("Rejected"));
+
+    dispatcher.dispatch();
+
+    MailOutbox rejected = find("reject@example.com");
+    assertThat(find("ok@example.com").getStatus()).isEqualTo(MailOutboxStatus.SENT);
+    assertThat(rejected.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+    assertThat(rejected.getAttempts()).isEqualTo(1);
+    assertThat(rejected.getNextAttemptAt()).isAfter(LocalDateTime.now());
+    assertThat(rejected.getLastError()).isNotBlank();
+    assertThat(dispatcher.dispatch()).isZero();
+
+    rejected.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+    mailOutboxRepository.save(rejected);
+    dispatcher.dispatch();
+
+    MailOutbox failed = find("reject@example.com");
+    assertThat(failed.getStatus()).isEqualTo(MailOutboxStatus.FAILED);
+    assertThat(failed.getAttempts()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("finish: リースが切れて再取得された行は古い送信結果で上書きしない")
+  void finish_ignoresRowReclaimedByAnotherNode() {
+    mailService.sendTodoCreated(user("lease@example.com"), todo("Lease"));
+    MailOutbox mail = find("lease@example.com");
+    LocalDateTime now = LocalDateTime.now();
+    List<MailOutboxStatus> claimable = List.of(MailOutboxStatus.PENDING, MailOutboxStatus.SENDING);
+    assertThat(mailOutboxRepository.claim(mail.getId(), 0, claimable, now.minusSeconds(1))).isEqualTo(1);
+    assertThat(mailOutboxRepository.claim(mail.getId(), 1, claimable, now.plusMinutes(5))).isEqualTo(1);
+
+    assertThat(mailOutboxRepository.finish(mail.getId(), 1, MailOutboxStatus.PENDING, now, null, "stale"))
+        .isZero();
+
+    MailOutbox reclaimed = find("lease@example.com");
+    assertThat(reclaimed.getStatus()).isEqualTo(MailOutboxStatus.SENDING);
+    assertThat(reclaimed.getAttempts()).isEqualTo(2);
+    assertThat(reclaimed.getLastError()).isNull();
+  }
+
+  private MailOutbox find(String recipient) {
+    List<MailOutbox> mails = mailOutboxRepository.findAll().stream()
+        .filter(mail -> mail.getRecipient().equals(recipient))
+        .toList();
+    assertThat(mails).hasSize(1);
+    return mails.get(0);
+  }
+
+  private AppUser user(String email) {
+    return AppUser.builder().username(email.substring(0, email.indexOf('@'))).email(email).build();
+  }
+
+  private Todo todo(String title) {
+    return Todo.builder().title(title).build();
+  }
+}
@@ -0,0 +1,206 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class TodoBatchServiceTest {
+
+  @Autowired
+  private TodoBatchService todoBatchService;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ReferenceDataCache referenceDataCache;
+
+  @SpyBean
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private AuditLogWriter auditLogWriter;
+
+  @MockBean
+  private MailService mailService;
+
+  private AppUser user;
+  private Category category;
+
+  @BeforeEach
+  void setUp() {
+    user = appUserRepository.save(AppUser.builder()
+        .username("batcher")
+        .email("batcher@example.com")
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .enabled(true)
+        .build());
+    category = categoryRepository.save(new Category(null, "Batch", "#000000"));
+    referenceDataCache.invalidate();
+  }
+
+  @Test
+  @DisplayName("apply: 1件でも不正なら何も書き込まず、全項目の結果を入力順に返す")
+  void apply_rejectsWholeBatchWhenAnyItemInvalid() {
+    TodoForm invalid = form("");
+
+    List<TodoBatchResult> results = todoBatchService.apply(user.getId(), List.of(form("ok"), invalid));
+
+    assertThat(results).extracting(TodoBatchResult::index).containsExactly(0, 1);
+    assertThat(results).extracting(TodoBatchResult::status)
+        .containsExactly(TodoBatchResult.Status.SKIPPED, TodoBatchResult.Status.INVALID);
+    assertThat(results.get(0).isApplied()).isFalse();
+    assertThat(results.get(1).errors()).isNotEmpty();
+    assertThat(countTodos()).isZero();
+  }
+
+  @Test
+  @DisplayName("apply: 作成者は指定の有無にかかわらずログインユーザーになる")
+  void apply_usesAuthenticatedUserAsAuthor() {
+    TodoForm withoutAuthor = form("no author");
+    withoutAuthor.setAuthor(null);
+    TodoForm otherAuthor = form("other author");
+    otherAuthor.setAuthor("someone-else");
+
+    List<TodoBatchResult> results = todoBatchService.apply(user.getId(), List.of(withoutAuthor, otherAuthor));
+
+    assertThat(results).extracting(TodoBatchResult::status).containsOnly(TodoBatchResult.Status.CREATED);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE user_id = ? AND author = 'batcher'", Long.class, user.getId()))
+        .isEqualTo(2L);
+  }
+
+  @Test
+  @DisplayName("apply: 複数件をまとめて作成し、グループ・可視範囲・監査ログも書き込む")
+  void apply_createsTodosWithGroupsVisibilityAndAudit() {
+    List<TodoBatchResult> results = todoBatchService.apply(user.getId(),
+        List.of(form("first"), form("second"), form("third")));
+
+    assertThat(results).extracting(TodoBatchResult::status)
+        .containsOnly(TodoBatchResult.Status.CREATED);
+    List<Long> ids = results.stream().map(TodoBatchResult::id).toList();
+    assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+    assertThat(countTodos()).isEqualTo(3);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE user_id = ? AND category_id = ? AND author = 'batcher'",
+        Long.class, user.getId(), category.getId())).isEqualTo(3L);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todo_visibility WHERE user_id = ?", Long.class, user.getId())).isEqualTo(3L);
+    auditLogWriter.flush();
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM audit_logs WHERE action = 'TODO_CREATE' AND detail LIKE ?", Long.class,
+        "%userId=" + user.getId() + ", batch=true")).isEqualTo(3L);
+  }
+
+  @Test
+  @DisplayName("apply: 更新はバージョンが一致したものだけ反映し、古いものはCONFLICTを返す")
+  void apply_updatesWithVersionCheck() {
+    List<TodoBatchResult> created = todoBatchService.apply(user.getId(), List.of(form("a"), form("b")));
+    TodoForm current = form("a2");
+    current.setId(created.get(0).id());
+    current.setVersion(0L);
+    TodoForm stale = form("b2");
+    stale.setId(created.get(1).id());
+    stale.setVersion(5L);
+
+    List<TodoBatchResult> results = todoBatchService.apply(user.getId(), List.of(current, stale));
+
+    assertThat(results).extracting(TodoBatchResult::status)
+        .containsExactly(TodoBatchResult.Status.UPDATED, TodoBatchResult.Status.CONFLICT);
+    assertThat(jdbcTemplate.queryForObject("SELECT title FROM todos WHERE id = ?", String.class,
+        created.get(0).id())).isEqualTo("a2");
+    assertThat(jdbcTemplate.queryForObject("SELECT title FROM todos WHERE id = ?", String.class,
+        created.get(1).id())).isEqualTo("b");
+  }
+
+  @Test
+  @DisplayName("apply: ドライバが更新件数を返さない場合もバージョンを再確認してCONFLICTを判定する")
+  void apply_rechecksUpdatesWhenDriverReportsNoInfo() {
+    List<TodoBatchResult> created = todoBatchService.apply(user.getId(), List.of(form("a"), form("b")));
+    doAnswer(invocation -> {
+      int[] counts = (int[]) invocation.callRealMethod();
+      Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+      return counts;
+    }).when(jdbcTemplate).batchUpdate(startsWith("UPDATE todos SET title"), anyList(), any(int[].class));
+    TodoForm current = form("a2");
+    current.setId(created.get(0).id());
+    current.setVersion(0L);
+    TodoForm stale = form("b2");
+    stale.setId(created.get(1).id());
+    stale.setVersion(5L);
+
+    List<TodoBatchResult> results = todoBatchService.apply(user.getId(), List.of(current, stale));
+
+    assertThat(results).extracting(TodoBatchResult::status)
+        .containsExactly(TodoBatchResult.Status.UPDATED, TodoBatchResult.Status.CONFLICT);
+  }
+
+  @Test
+  @DisplayName("apply: 上限件数の作成と更新をそれぞれ1回のバッチ文で処理する")
+  void apply_handlesMaxItemsInSingleBatch() {
+    List<TodoForm> forms = IntStream.range(0, 500).mapToObj(i -> form("bulk-" + i)).toList();
+
+    List<TodoBatchResult> created = todoBatchService.apply(user.getId(), forms);
+
+    assertThat(created).extracting(TodoBatchResult::status).containsOnly(TodoBatchResult.Status.CREATED);
+    assertThat(countTodos()).isEqualTo(500);
+
+    List<TodoForm> updates = new ArrayList<>();
+    for (TodoBatchResult result : created) {
+      TodoForm update = form("bulk-updated-" + result.index());
+      update.setId(result.id());
+      update.setVersion(0L);
+      updates.add(update);
+    }
+    List<TodoBatchResult> updated = todoBatchService.apply(user.getId(), updates);
+
+    assertThat(updated).extracting(TodoBatchResult::status).containsOnly(TodoBatchResult.Status.UPDATED);
+    verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE todos SET title"), anyList(), any(int[].class));
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE user_id = ? AND version = 1 AND title LIKE 'bulk-updated-%'",
+        Long.class, user.getId())).isEqualTo(500L);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todo_visibility WHERE user_id = ?", Long.class, user.getId())).isEqualTo(500L);
+  }
+
+  private long countTodos() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE user_id = ?", Long.class, user.getId());
+  }
+
+  private TodoForm form(String title) {
+    TodoForm form = new TodoForm();
+    form.setAuthor("batcher");
+    form.setTitle(title);
+    form.setDueDate(LocalDate.now().plusDays(1));
+    form.setPriority(Priority.MEDIUM);
+    form.setStatus(TodoStatus.PLANNED);
+    form.setCategoryId(category.getId());
+    return form;
+  }
+}
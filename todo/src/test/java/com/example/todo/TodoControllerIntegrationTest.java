@@ -1,19 +1,35 @@
 package com.example.todo;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
@@ -24,6 +40,18 @@ class TodoControllerIntegrationTest {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private TodoChangeStream todoChangeStream;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ReferenceDataCache referenceDataCache;
+
+  @Autowired
+  private EntityManager entityManager;
+
   @Test
   @DisplayName("GET /todos: status200とindexビューを返す")
   @WithMockUser(username = "user", roles = "USER")
@@ -48,4 +76,310 @@ class TodoControllerIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(view().name("todo/confirm"));
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("GET /todos?cursor=...: カーソル指定でもindexビューを返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void getTodos_withCursor_returnsIndexView() throws Exception {
+    Todo last = Todo.builder().id(Long.MAX_VALUE).createdAt(java.time.LocalDateTime.now().plusDays(1)).build();
+    String cursor = TodoCursor.after("createdAt", "desc", last).encode();
+
+    mockMvc.perform(get("/todos").param("cursor", cursor))
+        .andExpect(status().isOk())
+        .andExpect(view().name("index"));
+  }
+
+  @Test
+  @DisplayName("GET /todos/fragments/list: 一覧テーブルとページャーだけを返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void getListFragment_returnsResultsOnly() throws Exception {
+    mockMvc.perform(get("/todos/fragments/list").param("status", "PLANNED").param("sort", "createdAt"))
+        .andExpect(status().isOk())
+        .andExpect(view().name("todo/list-fragment :: results"))
+        .andExpect(model().attributeExists("todos", "categoryLabels"))
+        .andExpect(model().attributeDoesNotExist("groups", "groupOptions", "todoForm"))
+        .andExpect(content().string(containsString("id=\"todo-results\"")))
+        .andExpect(content().string(not(containsString("<header"))));
+  }
+
+  @Test
+  @DisplayName("GET /api/todos?limit=1: 1件と次カーソルをmetaで返し、件数はwithTotal=trueの時だけ返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiList_returnsCursorMeta() throws Exception {
+    mockMvc.perform(get("/api/todos").param("limit", "1").param("withTotal", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.meta.total").isNumber())
+        .andExpect(header().exists("X-Total-Count"));
+    mockMvc.perform(get("/api/todos").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.meta.count").value(1))
+        .andExpect(jsonPath("$.meta.hasNext").value(true))
+        .andExpect(jsonPath("$.meta.nextCursor").isString())
+        .andExpect(jsonPath("$.meta.total").doesNotExist())
+        .andExpect(jsonPath("$.data[0].ownerId").isNumber())
+        .andExpect(jsonPath("$.data[0].groups").isArray())
+        .andExpect(jsonPath("$.data[0].user").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/{id}: ETagが一致すれば304、古いIf-MatchのPUT/DELETEは412を返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiTodo_honoursConditionalHeaders() throws Exception {
+    String body = """
+        {"title":"ETag","detail":"conditional","dueDate":"%s","priority":"MEDIUM","status":"PLANNED",
+         "author":"user"}
+        """.formatted(LocalDate.now().plusDays(1));
+    MvcResult created = mockMvc.perform(post("/api/todos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isCreated())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn();
+    long id = ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.data.id")).longValue();
+
+    String etag = mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, created.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/todos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+    String updatedEtag = mockMvc.perform(put("/api/todos/{id}", id).with(csrf())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(updatedEtag).isNotEqualTo(etag);
+
+    mockMvc.perform(put("/api/todos/{id}", id).with(csrf())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc.perform(delete("/api/todos/{id}", id).with(csrf())
+            .header(HttpHeaders.IF_MATCH, etag))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc.perform(get("/api/todos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+    mockMvc.perform(delete("/api/todos/{id}", id).with(csrf())
+            .header(HttpHeaders.IF_MATCH, updatedEtag))
+        .andExpect(status().isOk());
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE id = ? AND deleted_at IS NOT NULL", Long.class, id)).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/{id}: 自分のカテゴリの表示内容を変更すると古いETagでは304にならない")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiTodo_etagChangesWhenOwnLabelsChange() throws Exception {
+    Long categoryId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories", Long.class);
+    long id = createApiTodo("Own labels", categoryId);
+    String etag = mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    try {
+      entityManager.flush();
+      jdbcTemplate.update("UPDATE categories SET color = '#123456' WHERE id <> ?", categoryId);
+      entityManager.clear();
+      referenceDataCache.invalidate();
+      mockMvc.perform(get("/api/todos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+          .andExpect(status().isNotModified());
+
+      entityManager.flush();
+      jdbcTemplate.update("UPDATE categories SET color = '#123456' WHERE id = ?", categoryId);
+      entityManager.clear();
+      referenceDataCache.invalidate();
+      mockMvc.perform(get("/api/todos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    } finally {
+      referenceDataCache.invalidate();
+    }
+  }
+
+  @Test
+  @DisplayName("PUT /api/todos/{id}: カテゴリの表示内容が変わってもバージョンが同じならIf-Matchは成功する")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiUpdate_ifMatchIgnoresLabelChanges() throws Exception {
+    Long categoryId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories", Long.class);
+    long id = createApiTodo("Renamed labels", categoryId);
+    String etag = mockMvc.perform(get("/api/todos/{id}", id))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    try {
+      entityManager.flush();
+      jdbcTemplate.update("UPDATE categories SET name = 'renamed', color = '#123456'");
+      entityManager.clear();
+      referenceDataCache.invalidate();
+
+      mockMvc.perform(put("/api/todos/{id}", id).with(csrf())
+              .header(HttpHeaders.IF_MATCH, etag)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(apiTodoBody("Renamed labels", categoryId)))
+          .andExpect(status().isOk());
+    } finally {
+      referenceDataCache.invalidate();
+    }
+  }
+
+  private long createApiTodo(String title, Long categoryId) throws Exception {
+    MvcResult created = mockMvc.perform(post("/api/todos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(apiTodoBody(title, categoryId)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    return ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.data.id")).longValue();
+  }
+
+  private String apiTodoBody(String title, Long categoryId) {
+    return """
+        {"title":"%s","detail":"etag","dueDate":"%s","priority":"MEDIUM","status":"PLANNED",
+         "author":"user","categoryId":%d}
+        """.formatted(title, LocalDate.now().plusDays(1), categoryId);
+  }
+
+  @Test
+  @DisplayName("POST /api/todos + Idempotency-Key: 再送は作成せず最初のレスポンスを返し、別内容なら422を返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiCreate_replaysIdempotencyKey() throws Exception {
+    String body = """
+        {"title":"Idempotent","detail":"once","dueDate":"%s","priority":"LOW","status":"PLANNED","author":"user"}
+        """.formatted(LocalDate.now().plusDays(1));
+    MvcResult first = mockMvc.perform(post("/api/todos").with(csrf())
+            .header("Idempotency-Key", "create-once")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isCreated())
+        .andReturn();
+
+    String replayed = mockMvc.perform(post("/api/todos").with(csrf())
+            .header("Idempotency-Key", "create-once")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Idempotency-Replayed", "true"))
+        .andExpect(header().string(HttpHeaders.ETAG, first.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andReturn().getResponse().getContentAsString();
+    assertThat(replayed).isEqualTo(first.getResponse().getContentAsString());
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE title = 'Idempotent'", Integer.class)).isEqualTo(1);
+
+    mockMvc.perform(post("/api/todos").with(csrf())
+            .header("Idempotency-Key", "create-once")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body.replace("once", "twice")))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  @DisplayName("POST /api/todos: キーが違えば同じ内容でも作成し、キーなしの連続送信は409を返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiCreate_fingerprintWindowOnlyAppliesWithoutKey() throws Exception {
+    String body = """
+        {"title":"Twice","detail":"keyed","dueDate":"%s","priority":"LOW","status":"PLANNED","author":"user"}
+        """.formatted(LocalDate.now().plusDays(1));
+    for (String key : new String[] {"first-key", "second-key"}) {
+      mockMvc.perform(post("/api/todos").with(csrf())
+              .header("Idempotency-Key", key)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(body))
+          .andExpect(status().isCreated());
+    }
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM todos WHERE title = 'Twice'", Integer.class)).isEqualTo(2);
+
+    String unkeyed = body.replace("keyed", "unkeyed");
+    mockMvc.perform(post("/api/todos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(unkeyed))
+        .andExpect(status().isCreated());
+    mockMvc.perform(post("/api/todos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(unkeyed))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/changes?since=...: ウォーターマーク以降の更新と削除を返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiChanges_returnsChangedAndDeletedSinceWatermark() throws Exception {
+    String watermark = JsonPath.read(mockMvc.perform(get("/api/todos/changes"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString(), "$.data.watermark");
+    String body = """
+        {"title":"Sync","detail":"delta","dueDate":"%s","priority":"LOW","status":"PLANNED","author":"user"}
+        """.formatted(LocalDate.now().plusDays(1));
+    String created = mockMvc.perform(post("/api/todos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    long id = ((Number) JsonPath.read(created, "$.data.id")).longValue();
+
+    mockMvc.perform(get("/api/todos/changes").param("since", watermark))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.changed[?(@.id == %d)]", id).exists())
+        .andExpect(jsonPath("$.data.deleted[?(@.id == %d)]", id).doesNotExist());
+
+    mockMvc.perform(delete("/api/todos/{id}", id).with(csrf()))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/todos/changes").param("since", watermark))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.changed[?(@.id == %d)]", id).doesNotExist())
+        .andExpect(jsonPath("$.data.deleted[?(@.id == %d)]", id).exists())
+        .andExpect(jsonPath("$.data.watermark").isString());
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/changes?since=不正値: 400を返す")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiChanges_rejectsBrokenWatermark() throws Exception {
+    mockMvc.perform(get("/api/todos/changes").param("since", "not-a-watermark"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/stream: 閲覧可能なToDoの変更だけをSSEで配信する")
+  @WithMockUser(username = "user", roles = "USER")
+  void apiStream_pushesVisibleChanges() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/todos/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'user'", Long.class);
+    Long todoId = jdbcTemplate.queryForObject(
+        "SELECT MIN(todo_id) FROM todo_visibility WHERE user_id = ?", Long.class, userId);
+
+    todoChangeStream.onTodoChanged(TodoChangedEvent.of(TodoChangedEvent.Type.UPDATED, todoId, Long.MAX_VALUE));
+
+    String expected = "{\"type\":\"UPDATED\",\"todoIds\":[" + todoId + "]}";
+    for (int i = 0; i < 100 && !result.getResponse().getContentAsString().contains(expected); i++) {
+      Thread.sleep(50);
+    }
+    assertThat(result.getResponse().getContentAsString())
+        .contains("event:ready")
+        .contains("event:todo")
+        .contains(expected);
+    assertThat(todoChangeStream.subscriberCount(userId)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("GET /api/todos/stream: ユーザーごとの同時接続数を超えると429を返す")
+  @WithMockUser(username = "admin", roles = "ADMIN")
+  void apiStream_rejectsSubscriptionsOverLimitWithTooManyRequests() throws Exception {
+    Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'admin'", Long.class);
+    while (todoChangeStream.subscriberCount(userId) < 5) {
+      mockMvc.perform(get("/api/todos/stream")).andExpect(request().asyncStarted());
+    }
+
+    mockMvc.perform(get("/api/todos/stream").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(jsonPath("$.success").value(false));
+  }
+}
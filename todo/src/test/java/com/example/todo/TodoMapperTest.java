@@ -21,6 +21,12 @@ class TodoMapperTest {
   @Autowired
   private TodoMapper todoMapper;
 
+  @Autowired
+  private TodoVisibilityMapper todoVisibilityMapper;
+
+  @Autowired
+  private GroupClosureMapper groupClosureMapper;
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
@@ -28,7 +34,7 @@ class TodoMapperTest {
   @DisplayName("未削除ToDoが通常検索で取得できる")
   void search_returnsUndeletedTodos() {
     // 変更理由: TodoMapper.xml の通常検索条件（deleted_at IS NULL）に追従する。
-    List<Todo> todos = todoMapper.search(null, 1L, List.of(), "createdAt", "desc", null, null, null, 20, 0);
+    List<Todo> todos = todoMapper.search(null, 1L, "createdAt", "desc", null, null, null, 20, 0);
 
     assertThat(todos).extracting(Todo::getTitle)
         .containsExactly("Visible task");
@@ -37,7 +43,7 @@ class TodoMapperTest {
   @Test
   @DisplayName("deleted_at入りToDoは通常検索で除外される")
   void search_excludesDeletedTodos() {
-    List<Todo> todos = todoMapper.search("Deleted", 1L, List.of(), "createdAt", "desc", null, null, null, 20, 0);
+    List<Todo> todos = todoMapper.search("Deleted", 1L, "createdAt", "desc", null, null, null, 20, 0);
 
     assertThat(todos).isEmpty();
   }
@@ -56,9 +62,214 @@ class TodoMapperTest {
   void restoredTodo_returnsToNormalSearch() {
     jdbcTemplate.update("UPDATE todos SET deleted_at = NULL WHERE id = ?", 2L);
 
-    List<Todo> todos = todoMapper.search("Deleted", 1L, List.of(), "createdAt", "desc", null, null, null, 20, 0);
+    List<Todo> todos = todoMapper.search("Deleted", 1L, "createdAt", "desc", null, null, null, 20, 0);
 
     assertThat(todos).hasSize(1);
     assertThat(todos.get(0).getId()).isEqualTo(2L);
   }
+
+  @Test
+  @DisplayName("lockDeletableIds: 本人の未削除ToDoのIDだけを返す")
+  void lockDeletableIds_returnsOnlyOwnedUndeletedIds() {
+    assertThat(todoMapper.lockDeletableIds(List.of(1L, 2L, 999L), 1L)).containsExactly(1L);
+    assertThat(todoMapper.lockDeletableIds(List.of(1L), 2L)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("searchAfter: カーソルで重複・欠落なく次ページへ進める")
+  void searchAfter_pagesWithoutGapsOrDuplicates() {
+    for (long id = 10; id < 15; id++) {
+      jdbcTemplate.update("INSERT INTO todos (id, author, title, priority, status, created_at, updated_at, version, user_id) "
+          + "VALUES (?, 'Alice', ?, 'MEDIUM', 'PLANNED', TIMESTAMP '2026-01-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)",
+          id, "Same time " + id);
+    }
+
+    rebuildVisibility();
+    List<Long> seen = new java.util.ArrayList<>();
+    Object cursorValue = null;
+    Long cursorId = null;
+    for (int i = 0; i < 4; i++) {
+      List<Todo> page = todoMapper.searchAfter(null, 1L, "createdAt", "desc", null, null, null,
+          cursorValue, cursorId, 2);
+      if (page.isEmpty()) {
+        break;
+      }
+      page.forEach(todo -> seen.add(todo.getId()));
+      TodoCursor next = TodoCursor.decode(
+          TodoCursor.after("createdAt", "desc", page.get(page.size() - 1)).encode());
+      cursorValue = next.getValue();
+      cursorId = next.getId();
+    }
+
+    assertThat(seen).containsExactly(1L, 14L, 13L, 12L, 11L, 10L);
+  }
+
+  @Test
+  @DisplayName("streamSearch: 一覧と同じ並び順でカーソルから全件を読み出せる")
+  void streamSearch_readsAllRowsInListOrder() throws Exception {
+    for (long id = 30; id < 33; id++) {
+      jdbcTemplate.update("INSERT INTO todos (id, author, title, priority, status, created_at, updated_at, version, user_id) "
+          + "VALUES (?, 'Alice', ?, 'MEDIUM', 'PLANNED', TIMESTAMP '2026-01-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)",
+          id, "Export " + id);
+    }
+
+    rebuildVisibility();
+    List<Long> streamed = new java.util.ArrayList<>();
+    try (org.apache.ibatis.cursor.Cursor<Todo> cursor =
+        todoMapper.streamSearch(null, 1L, "createdAt", "desc", null, null, null)) {
+      cursor.forEach(todo -> streamed.add(todo.getId()));
+    }
+
+    List<Todo> listed = todoMapper.search(null, 1L, "createdAt", "desc", null, null, null, 20, 0);
+    assertThat(streamed).containsExactlyElementsOf(listed.stream().map(Todo::getId).toList());
+    assertThat(streamed).containsExactly(1L, 32L, 31L, 30L);
+  }
+
+  @Test
+  @DisplayName("findVisibleById / findGroupLinks: 可視ToDoの詳細とグループIDをまとめて取得できる")
+  void findVisibleById_andGroupLinks() {
+    jdbcTemplate.update("INSERT INTO groups (id, name, type, color) VALUES (40, 'Team', 'TEAM', '#111111')");
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (1, 40), (3, 40)");
+
+    Todo visible = todoMapper.findVisibleById(1L, 1L);
+
+    assertThat(visible.getTitle()).isEqualTo("Visible task");
+    assertThat(visible.getCategory().getName()).isEqualTo("Work");
+    assertThat(todoMapper.findVisibleById(3L, 1L)).isNull();
+    assertThat(todoMapper.findGroupLinks(List.of(1L, 3L)))
+        .extracting(TodoGroupLink::getTodoId, TodoGroupLink::getGroupId)
+        .containsExactlyInAnyOrder(org.assertj.core.groups.Tuple.tuple(1L, 40L),
+            org.assertj.core.groups.Tuple.tuple(3L, 40L));
+  }
+
+  @Test
+  @DisplayName("searchAfter: 期限なしToDoは期限順ソートの末尾に続く")
+  void searchAfter_dueDateNullsLast() {
+    jdbcTemplate.update("INSERT INTO todos (id, author, title, priority, status, due_date, created_at, updated_at, version, user_id) "
+        + "VALUES (20, 'Alice', 'No due', 'LOW', 'PLANNED', NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 1)");
+    jdbcTemplate.update("INSERT INTO todos (id, author, title, priority, status, due_date, created_at, updated_at, version, user_id) "
+        + "VALUES (21, 'Alice', 'No due 2', 'LOW', 'PLANNED', NULL, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 1)");
+
+    rebuildVisibility();
+    List<Todo> first = todoMapper.searchAfter(null, 1L, "dueDate", "asc", null, null, null, null, null, 2);
+    TodoCursor cursor = TodoCursor.decode(TodoCursor.after("dueDate", "asc", first.get(1)).encode());
+    List<Todo> second = todoMapper.searchAfter(null, 1L, "dueDate", "asc", null, null, null,
+        cursor.getValue(), cursor.getId(), 2);
+
+    assertThat(first).extracting(Todo::getId).containsExactly(1L, 20L);
+    assertThat(second).extracting(Todo::getId).containsExactly(21L);
+  }
+
+  @Test
+  @DisplayName("searchWithTotal: ページ内容と総件数を1回の検索で取得できる")
+  void searchWithTotal_returnsRowsWithTotalCount() {
+    for (long id = 10; id < 15; id++) {
+      jdbcTemplate.update("INSERT INTO todos (id, author, title, priority, status, created_at, updated_at, version, user_id) "
+          + "VALUES (?, 'Alice', ?, 'MEDIUM', 'PLANNED', TIMESTAMP '2026-01-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)",
+          id, "Same time " + id);
+    }
+
+    rebuildVisibility();
+    List<TodoPageRow> rows = todoMapper.searchWithTotal(null, 1L, "createdAt", "desc", null, null, null,
+        null, null, 2, 2);
+
+    assertThat(rows).extracting(row -> row.getTodo().getId()).containsExactly(13L, 12L);
+    assertThat(rows).extracting(TodoPageRow::getTotalCount).containsOnly(6L);
+  }
+
+  @Test
+  @DisplayName("キーワード検索: 説明文も対象にし、関連度順（タイトル一致優先）で並ぶ")
+  void search_matchesDescriptionAndRanksByRelevance() {
+    jdbcTemplate.update("INSERT INTO todos (id, author, title, description, priority, status, created_at, updated_at, version, user_id) "
+        + "VALUES (30, 'Alice', '議事録の共有', '定例会議のメモ', 'LOW', 'PLANNED', TIMESTAMP '2026-03-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)");
+    jdbcTemplate.update("INSERT INTO todos (id, author, title, description, priority, status, created_at, updated_at, version, user_id) "
+        + "VALUES (31, 'Alice', '会議', NULL, 'LOW', 'PLANNED', TIMESTAMP '2026-01-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)");
+    jdbcTemplate.update("INSERT INTO todos (id, author, title, description, priority, status, created_at, updated_at, version, user_id) "
+        + "VALUES (32, 'Alice', '週次会議の準備', NULL, 'LOW', 'PLANNED', TIMESTAMP '2026-02-01 10:00:00', CURRENT_TIMESTAMP, 0, 1)");
+
+    rebuildVisibility();
+    List<Todo> todos = todoMapper.search("会議", 1L, "relevance", "desc", null, null, null, 20, 0);
+
+    assertThat(todos).extracting(Todo::getId).containsExactly(31L, 32L, 30L);
+  }
+
+  @Test
+  @DisplayName("todo_visibility: 所属グループ経由で共有されたToDoが一覧に含まれる")
+  void search_includesTodosSharedThroughGroups() {
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (1, 100)");
+    jdbcTemplate.update("INSERT INTO user_groups (user_id, group_id) VALUES (2, 100)");
+    rebuildVisibility();
+
+    List<Todo> todos = todoMapper.search(null, 2L, "createdAt", "desc", null, null, null, 20, 0);
+
+    assertThat(todos).extracting(Todo::getId).containsExactlyInAnyOrder(1L, 3L);
+    assertThat(todoMapper.count(null, 2L, null, null, null)).isEqualTo(2L);
+  }
+
+  @Test
+  @DisplayName("todo_visibility: 整合性チェックで不足・余剰行を検出できる")
+  void visibilityCheck_detectsMissingAndStaleRows() {
+    jdbcTemplate.update("INSERT INTO user_groups (user_id, group_id) VALUES (2, 100)");
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (1, 100)");
+    jdbcTemplate.update("INSERT INTO todo_visibility (user_id, todo_id) VALUES (3, 1)");
+
+    assertThat(todoVisibilityMapper.countMissing()).isEqualTo(1L);
+    assertThat(todoVisibilityMapper.countStale()).isEqualTo(1L);
+
+    rebuildVisibility();
+
+    assertThat(todoVisibilityMapper.countMissing()).isZero();
+    assertThat(todoVisibilityMapper.countStale()).isZero();
+  }
+
+  @Test
+  @DisplayName("group_closure: 上位グループ指定で配下プロジェクトのToDoに絞り込める")
+  void search_filtersByDescendantProjects() {
+    insertGroup(100L, "Company", "COMPANY", null);
+    insertGroup(101L, "Dept", "DEPARTMENT", 100L);
+    insertGroup(102L, "Project A", "PROJECT", 101L);
+    insertGroup(103L, "Client", "CLIENT", null);
+    insertGroup(104L, "Project B", "PROJECT", 103L);
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (1, 102)");
+
+    assertThat(todoMapper.search(null, 1L, "createdAt", "desc", null, 100L, null, 20, 0))
+        .extracting(Todo::getId).containsExactly(1L);
+    assertThat(todoMapper.search(null, 1L, "createdAt", "desc", null, 102L, null, 20, 0))
+        .extracting(Todo::getId).containsExactly(1L);
+    assertThat(todoMapper.search(null, 1L, "createdAt", "desc", null, 103L, null, 20, 0)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("group_closure: 親の付け替えで配下ごと祖先リンクが更新される")
+  void groupClosure_moveSubtreeUpdatesAncestors() {
+    insertGroup(100L, "Company", "COMPANY", null);
+    insertGroup(101L, "Dept", "DEPARTMENT", 100L);
+    insertGroup(102L, "Project A", "PROJECT", 101L);
+    insertGroup(200L, "Company 2", "COMPANY", null);
+    jdbcTemplate.update("INSERT INTO todo_groups (todo_id, group_id) VALUES (1, 102)");
+
+    groupClosureMapper.detachSubtree(101L);
+    groupClosureMapper.attachSubtree(101L, 200L);
+
+    assertThat(todoMapper.search(null, 1L, "createdAt", "desc", null, 100L, null, 20, 0)).isEmpty();
+    assertThat(todoMapper.search(null, 1L, "createdAt", "desc", null, 200L, null, 20, 0))
+        .extracting(Todo::getId).containsExactly(1L);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT depth FROM group_closure WHERE ancestor_id = 200 AND descendant_id = 102", Integer.class))
+        .isEqualTo(2);
+  }
+
+  private void insertGroup(long id, String name, String type, Long parentId) {
+    jdbcTemplate.update("INSERT INTO groups (id, name, type, parent_id, color) VALUES (?, ?, ?, ?, '#000000')",
+        id, name, type, parentId);
+    groupClosureMapper.insertSelf(id);
+    if (parentId != null) {
+      groupClosureMapper.insertUnderParent(id, parentId);
+    }
+  }
+
+  private void rebuildVisibility() {
+    todoVisibilityMapper.deleteAll();
+    todoVisibilityMapper.insertAll();
+  }
 }
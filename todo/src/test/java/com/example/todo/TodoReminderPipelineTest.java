@@ -0,0 +1,221 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = {
+    "app.mail.from=noreply@example.com",
+    "app.reminder.chunk-size=2"
+})
+@Transactional
+class TodoReminderPipelineTest {
+
+  private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+
+  @Autowired
+  private TodoReminderPipeline todoReminderPipeline;
+
+  @Autowired
+  private ReminderScheduleService reminderScheduleService;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private MailOutboxRepository mailOutboxRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @SpyBean
+  private MailService mailService;
+
+  private final LocalDate due = LocalDate.of(2031, 1, 10);
+
+  @Test
+  @DisplayName("fireAt: 期限のN日前の通知時刻。過ぎていれば次の通知時刻、期限を越えるなら通知しない")
+  void fireAt_usesLeadTimeOrNextSlot() {
+    LocalDateTime early = tokyo(LocalDate.of(2031, 1, 1), 12);
+    assertThat(reminderScheduleService.fireAt(due, early)).isEqualTo(tokyo(due.minusDays(3), 9));
+
+    LocalDateTime late = tokyo(due.minusDays(1), 12);
+    assertThat(reminderScheduleService.fireAt(due, late)).isEqualTo(tokyo(due, 9));
+
+    LocalDateTime dueDay = tokyo(due, 12);
+    assertThat(reminderScheduleService.fireAt(due, dueDay)).isNull();
+  }
+
+  @Test
+  @DisplayName("TodoServiceの作成・更新で送信予定が同じトランザクション内で更新される")
+  void todoChanges_maintainSchedule() {
+    AppUser user = user("sched1");
+    TodoForm form = new TodoForm();
+    form.setTitle("Scheduled");
+    form.setDueDate(due);
+    form.setPriority(Priority.MEDIUM);
+    form.setStatus(TodoStatus.PLANNED);
+    Todo created = todoService.create(user.getId(), form);
+
+    assertThat(fireAtOf(created.getId())).containsExactly(tokyo(due.minusDays(3), 9));
+
+    form.setDueDate(due.plusDays(5));
+    form.setVersion(created.getVersion());
+    Todo moved = todoService.update(created.getId(), form);
+    assertThat(fireAtOf(created.getId())).containsExactly(tokyo(due.plusDays(2), 9));
+
+    form.setStatus(TodoStatus.COMPLETED);
+    form.setVersion(moved.getVersion());
+    todoService.update(created.getId(), form);
+    assertThat(fireAtOf(created.getId())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("期限日・ステータスが変わらない更新では送信済みの予定を作り直さない")
+  void todoUpdate_keepsScheduleUnlessDueDateOrStatusChanges() {
+    AppUser user = user("sched2");
+    TodoForm form = new TodoForm();
+    form.setTitle("Fired");
+    form.setDueDate(due);
+    form.setPriority(Priority.MEDIUM);
+    form.setStatus(TodoStatus.PLANNED);
+    Todo created = todoService.create(user.getId(), form);
+    jdbcTemplate.update("DELETE FROM reminder_schedule WHERE todo_id = ?", created.getId());
+
+    form.setTitle("Renamed");
+    form.setVersion(created.getVersion());
+    Todo renamed = todoService.update(created.getId(), form);
+    assertThat(fireAtOf(created.getId())).isEmpty();
+
+    form.setDueDate(due.plusDays(5));
+    form.setVersion(renamed.getVersion());
+    todoService.update(created.getId(), form);
+    assertThat(fireAtOf(created.getId())).containsExactly(tokyo(due.plusDays(2), 9));
+  }
+
+  @Test
+  @DisplayName("完全削除したToDoの送信予定は同じトランザクション内で削除される")
+  void hardDelete_removesSchedule() {
+    AppUser user = user("sched-hard");
+    TodoForm form = new TodoForm();
+    form.setTitle("Purged");
+    form.setDueDate(due);
+    form.setPriority(Priority.MEDIUM);
+    form.setStatus(TodoStatus.PLANNED);
+    Todo created = todoService.create(user.getId(), form);
+    assertThat(fireAtOf(created.getId())).hasSize(1);
+
+    todoService.deleteByIdHard(created.getId());
+
+    assertThat(fireAtOf(created.getId())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("dispatch: 送信時刻を過ぎた行だけをユーザーごとに1通にまとめて送る")
+  void dispatch_sendsOnlyDueRowsOncePerUser() {
+    AppUser first = user("remind1");
+    AppUser second = user("remind2");
+    AppUser third = user("remind3");
+    AppUser later = user("remind4");
+    todo(first, "First A", due);
+    todo(first, "First B", due.plusDays(1));
+    todo(second, "Second", due);
+    todo(third, "Third", due);
+    todo(later, "Later", due.plusDays(30));
+
+    long sent = todoReminderPipeline.dispatch(tokyo(due.minusDays(1), 10));
+
+    assertThat(sent).isEqualTo(3);
+    assertThat(recipients()).containsExactlyInAnyOrder(
+        "remind1@example.com", "remind2@example.com", "remind3@example.com");
+    assertThat(mailOutboxRepository.findAll().stream()
+        .filter(mail -> mail.getRecipient().equals("remind1@example.com"))
+        .findFirst().orElseThrow().getBody())
+        .contains("First A", "First B");
+    assertThat(todoReminderPipeline.dispatch(tokyo(due.minusDays(1), 10))).isZero();
+    assertThat(jdbcTemplate.queryForList(
+        "SELECT DISTINCT fire_at FROM reminder_schedule WHERE user_id = ?", LocalDateTime.class, first.getId()))
+        .containsExactly(tokyo(due, 9));
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM reminder_schedule WHERE user_id = ?", Long.class, later.getId())).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("dispatch: 1ユーザーのレンダリング失敗は他のユーザーの送信を止めず、その予定は次回に残す")
+  void dispatch_skipsUserWhoseRenderFails() {
+    AppUser broken = user("remind-broken");
+    AppUser healthy = user("remind-healthy");
+    todo(broken, "Broken", due);
+    todo(healthy, "Healthy", due);
+    doThrow(new IllegalStateException("template error")).when(mailService)
+        .renderDueSoonReminder(argThat(user -> user != null && "remind-broken".equals(user.getUsername())), any());
+
+    long sent = todoReminderPipeline.dispatch(tokyo(due.minusDays(1), 10));
+
+    assertThat(sent).isEqualTo(1);
+    assertThat(recipients()).containsExactly("remind-healthy@example.com");
+    assertThat(jdbcTemplate.queryForList(
+        "SELECT fire_at FROM reminder_schedule WHERE user_id = ?", LocalDateTime.class, broken.getId()))
+        .containsExactly(tokyo(due.minusDays(3), 9));
+  }
+
+  private List<LocalDateTime> fireAtOf(long todoId) {
+    return jdbcTemplate.queryForList(
+        "SELECT fire_at FROM reminder_schedule WHERE todo_id = ?", LocalDateTime.class, todoId);
+  }
+
+  private List<String> recipients() {
+    return mailOutboxRepository.findAll().stream()
+        .filter(mail -> mail.getKind().equals("DUE_SOON_REMINDER"))
+        .map(MailOutbox::getRecipient)
+        .toList();
+  }
+
+  private LocalDateTime tokyo(LocalDate date, int hour) {
+    return ZonedDateTime.of(date.atTime(hour, 0), TOKYO)
+        .withZoneSameInstant(ZoneId.systemDefault())
+        .toLocalDateTime();
+  }
+
+  private AppUser user(String username) {
+    return appUserRepository.save(AppUser.builder()
+        .username(username)
+        .email(username + "@example.com")
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .enabled(true)
+        .build());
+  }
+
+  private void todo(AppUser user, String title, LocalDate dueDate) {
+    Todo todo = todoRepository.saveAndFlush(Todo.builder()
+        .author(user.getUsername())
+        .title(title)
+        .dueDate(dueDate)
+        .priority(Priority.MEDIUM)
+        .user(user)
+        .status(TodoStatus.PLANNED)
+        .build());
+    reminderScheduleService.refresh(List.of(todo.getId()));
+  }
+}
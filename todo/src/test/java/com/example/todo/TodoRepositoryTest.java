@@ -0,0 +1,154 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+@DataJpaTest(properties = {
+    "spring.sql.init.mode=never",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TodoRepositoryTest {
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private AppUser owner;
+  private AppUser other;
+  private Group shared;
+  private int sequence;
+
+  @BeforeEach
+  void setUp() {
+    owner = persistUser("owner");
+    other = persistUser("other");
+    Group division = entityManager.persist(Group.builder().name("Division").type(GroupType.COMPANY).color("#000000").build());
+    shared = entityManager.persist(Group.builder().name("Shared").type(GroupType.DEPARTMENT).color("#000000")
+        .parent(division).build());
+  }
+
+  @Test
+  @DisplayName("所有ToDo一覧: 件数が増えても関連の読み込みは1ステートメントで済む")
+  void findOwned_usesFixedStatementCount() {
+    Supplier<List<Todo>> query = () -> todoRepository.findAllByUser_IdAndDeletedAtIsNullOrderByCreatedAtDesc(owner.getId());
+
+    persistTodos(owner, 2, false);
+    long few = countStatements(query, 2);
+    persistTodos(owner, 8, false);
+    long many = countStatements(query, 10);
+
+    assertThat(many).isEqualTo(few).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("グループ共有ToDo一覧: 件数が増えても関連の読み込みは1ステートメントで済む")
+  void findShared_usesFixedStatementCount() {
+    Supplier<List<Todo>> query = () -> todoRepository.findSharedByGroupIds(owner.getId(), List.of(shared.getId()));
+
+    persistTodos(other, 2, false);
+    long few = countStatements(query, 2);
+    persistTodos(other, 8, false);
+    long many = countStatements(query, 10);
+
+    assertThat(many).isEqualTo(few).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("ID指定エクスポート: 件数が増えても関連の読み込みは1ステートメントで済む")
+  void findByIds_usesFixedStatementCount() {
+    List<Long> ids = new java.util.ArrayList<>();
+    Supplier<List<Todo>> query = () -> todoRepository.findAllWithAssociationsByIdIn(ids);
+
+    persistTodos(owner, 2, false).forEach(todo -> ids.add(todo.getId()));
+    long few = countStatements(query, 2);
+    persistTodos(owner, 8, false).forEach(todo -> ids.add(todo.getId()));
+    long many = countStatements(query, 10);
+
+    assertThat(many).isEqualTo(few).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("削除済みToDo一覧: 件数が増えても関連の読み込みは1ステートメントで済む")
+  void findDeleted_usesFixedStatementCount() {
+    Supplier<List<Todo>> query = todoRepository::findAllByDeletedAtIsNotNullOrderByDeletedAtDesc;
+
+    persistTodos(owner, 2, true);
+    long few = countStatements(query, 2);
+    persistTodos(other, 8, true);
+    long many = countStatements(query, 10);
+
+    assertThat(many).isEqualTo(few).isEqualTo(1L);
+  }
+
+  private long countStatements(Supplier<List<Todo>> query, int expectedSize) {
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    List<Todo> todos = query.get();
+    for (Todo todo : todos) {
+      todo.getUser().getUsername();
+      todo.getCategory().getName();
+      for (Group group : todo.getGroups()) {
+        group.getName();
+        if (group.getParent() != null) {
+          group.getParent().getName();
+        }
+      }
+    }
+
+    assertThat(todos).hasSize(expectedSize);
+    return statistics.getPrepareStatementCount();
+  }
+
+  private List<Todo> persistTodos(AppUser user, int count, boolean deleted) {
+    List<Todo> todos = new java.util.ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int n = ++sequence;
+      Category category = entityManager.persist(new Category(null, "Category " + n, "#000000"));
+      Group own = entityManager.persist(Group.builder().name("Group " + n).type(GroupType.PROJECT)
+          .color("#000000").parent(shared).build());
+      todos.add(entityManager.persist(Todo.builder()
+          .author(user.getUsername())
+          .title("Todo " + n)
+          .priority(Priority.MEDIUM)
+          .status(TodoStatus.PLANNED)
+          .user(user)
+          .category(category)
+          .groups(new HashSet<>(Set.of(shared, own)))
+          .deletedAt(deleted ? LocalDateTime.now() : null)
+          .build()));
+    }
+    return todos;
+  }
+
+  private AppUser persistUser(String username) {
+    return entityManager.persist(AppUser.builder()
+        .username(username)
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .email(username + "@example.com")
+        .enabled(true)
+        .build());
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class TodoServiceAuditTest {
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private AuditPayloadSerializer auditPayloadSerializer;
+
+  @MockBean
+  private TodoMapper todoMapper;
+
+  @MockBean
+  private MailService mailService;
+
+  @MockBean
+  private AuditLogService auditLogService;
+
+  @Test
+  @DisplayName("update: 監査ログには変更されたフィールドだけが記録される")
+  void update_auditsChangedFieldsOnly() {
+    AppUser user = appUserRepository.save(AppUser.builder()
+        .username("auditor")
+        .email("auditor@example.com")
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .enabled(true)
+        .build());
+    Todo saved = todoRepository.saveAndFlush(Todo.builder()
+        .author("Dan")
+        .title("Before")
+        .description("x".repeat(500))
+        .dueDate(LocalDate.now().plusDays(2))
+        .priority(Priority.LOW)
+        .user(user)
+        .status(TodoStatus.IN_PROGRESS)
+        .build());
+
+    TodoForm form = new TodoForm();
+    form.setTitle("After");
+    form.setDetail(saved.getDescription());
+    form.setDueDate(saved.getDueDate());
+    form.setPriority(Priority.LOW);
+    form.setStatus(TodoStatus.IN_PROGRESS);
+    form.setVersion(saved.getVersion());
+    todoService.update(saved.getId(), form);
+
+    ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+    verify(auditLogService).recordAudit(captor.capture());
+    AuditLog audit = captor.getValue();
+    assertThat(audit.getTargetId()).isEqualTo(String.valueOf(saved.getId()));
+    assertThat(audit.getBeforeState()).containsEntry("title", "Before")
+        .doesNotContainKeys("description", "userId", "groups", "priority");
+    assertThat(audit.getAfterState()).containsEntry("title", "After")
+        .doesNotContainKeys("description", "userId", "groups", "priority");
+    assertThat(auditPayloadSerializer.serialize(audit.getAfterState()))
+        .contains("\"title\":\"After\"")
+        .hasSizeLessThan(200);
+  }
+
+  @Test
+  @DisplayName("create: 監査ログは@Auditableの1件だけが記録される")
+  void create_auditsOnce() {
+    AppUser user = appUserRepository.save(AppUser.builder()
+        .username("creator")
+        .email("creator@example.com")
+        .password("{noop}pass")
+        .roles("ROLE_USER")
+        .enabled(true)
+        .build());
+    TodoForm form = new TodoForm();
+    form.setTitle("Audited once");
+    form.setDueDate(LocalDate.now().plusDays(2));
+    form.setPriority(Priority.LOW);
+    form.setStatus(TodoStatus.PLANNED);
+
+    Todo created = todoService.create(user.getId(), form);
+
+    ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+    verify(auditLogService).recordAudit(captor.capture());
+    verify(auditLogService, never()).record(anyString(), anyString());
+    assertThat(captor.getValue().getAction()).isEqualTo("TODO_CREATE");
+    assertThat(captor.getValue().getTargetId()).isEqualTo(String.valueOf(created.getId()));
+  }
+
+  @Test
+  @DisplayName("serialize: 上限を超えるときは値を短くして、常に読めるJSONを返す")
+  void serialize_shrinksValuesToStayValidJson() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    AuditPayloadSerializer serializer = new AuditPayloadSerializer(objectMapper, 120, 500);
+    Map<String, Object> state = new LinkedHashMap<>();
+    state.put("id", 42);
+    state.put("title", "\"quoted\" ".repeat(40));
+    state.put("description", "説明".repeat(200));
+    state.put("groups", List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20));
+
+    String json = serializer.serialize(state);
+
+    assertThat(json).hasSizeLessThanOrEqualTo(120);
+    JsonNode parsed = objectMapper.readTree(json);
+    assertThat(parsed.get("id").asInt()).isEqualTo(42);
+    assertThat(parsed.size()).isGreaterThan(1);
+  }
+}
@@ -1,20 +1,20 @@
 package com.example.todo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -46,15 +46,23 @@ class TodoServiceMapperMockTest {
   @Mock
   private GroupRepository groupRepository;
 
+  @Mock
+  private TodoVisibilityService todoVisibilityService;
+
+  @Mock
+  private UserContextService userContextService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks
   private TodoService todoService;
 
   @Test
   @DisplayName("findPage: 現行TodoMapperシグネチャで検索結果をPage化する")
   void findPage_usesMapper() {
-    // 変更理由: 本体が userGroupIds/categoryId/groupIds/status を受ける実装に追従する。
+    // 変更理由: 可視範囲は todo_visibility との結合で絞るため、userGroupIds は渡さない。
     Pageable pageable = PageRequest.of(0, 5);
-    AppUser user = AppUser.builder().id(1L).defaultGroups(new HashSet<>()).build();
 
     Todo todo1 = Todo.builder()
         .id(1L)
@@ -73,23 +81,29 @@ class TodoServiceMapperMockTest {
         .status(TodoStatus.PLANNED)
         .build();
 
-    when(appUserRepository.findById(1L)).thenReturn(Optional.of(user));
-    when(todoMapper.count(null, 1L, List.of(), null, null, null)).thenReturn(2L);
-    when(todoMapper.search(null, 1L, List.of(), "createdAt", "desc", null, null, null, 5, 0))
-        .thenReturn(List.of(todo1, todo2));
+    when(todoMapper.searchWithTotal(null, 1L, "createdAt", "desc", null, null, null, null, null, 5, 0))
+        .thenReturn(List.of(pageRow(todo1, 2L), pageRow(todo2, 2L)));
 
     Page<Todo> page = todoService.findPage(1L, "", "", "", null, null, null, pageable);
 
     assertThat(page.getTotalElements()).isEqualTo(2);
     assertThat(page.getContent()).hasSize(2);
-    verify(todoMapper).count(null, 1L, List.of(), null, null, null);
-    verify(todoMapper).search(null, 1L, List.of(), "createdAt", "desc", null, null, null, 5, 0);
+    verify(todoMapper).searchWithTotal(null, 1L, "createdAt", "desc", null, null, null, null, null, 5, 0);
+    verify(todoMapper, never()).count(any(), any(), any(), any(), any());
+  }
+
+  private TodoPageRow pageRow(Todo todo, long totalCount) {
+    TodoPageRow row = new TodoPageRow();
+    row.setTodo(todo);
+    row.setTotalCount(totalCount);
+    return row;
   }
 
   @Test
   @DisplayName("deleteByIds: TodoMapperの論理削除結果を監査ログへ記録する")
   void deleteByIds_recordsAudit() {
     List<Long> ids = List.of(10L, 11L);
+    when(todoMapper.lockDeletableIds(ids, 1L)).thenReturn(ids);
     when(todoMapper.deleteByIds(ids, 1L)).thenReturn(2);
 
     int deleted = todoService.deleteByIds(1L, ids);
@@ -97,6 +111,20 @@ class TodoServiceMapperMockTest {
     assertThat(deleted).isEqualTo(2);
     verify(todoMapper).deleteByIds(ids, 1L);
     verify(auditLogService).record("TODO_BULK_DELETE", "count=2, userId=1");
+    verify(eventPublisher).publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, ids));
+  }
+
+  @Test
+  @DisplayName("deleteByIds: 所有していないIDは削除イベントに含めない")
+  void deleteByIds_publishesOnlyOwnedIds() {
+    List<Long> ids = List.of(10L, 11L, 12L);
+    when(todoMapper.lockDeletableIds(ids, 1L)).thenReturn(List.of(11L));
+    when(todoMapper.deleteByIds(List.of(11L), 1L)).thenReturn(1);
+
+    int deleted = todoService.deleteByIds(1L, ids);
+
+    assertThat(deleted).isEqualTo(1);
+    verify(eventPublisher).publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, List.of(11L)));
   }
 
   @Test
@@ -0,0 +1,112 @@
+package com.example.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class UserContextServiceTest {
+
+  @Mock
+  private AppUserRepository appUserRepository;
+
+  private UserContextService userContextService;
+
+  private final AppUser user = AppUser.builder()
+      .id(1L)
+      .username("user")
+      .roles("ROLE_USER")
+      .defaultGroups(Set.of(Group.builder().id(10L).build(), Group.builder().id(11L).build()))
+      .build();
+
+  @BeforeEach
+  void setUp() {
+    userContextService = new UserContextService(appUserRepository, Duration.ofMinutes(5));
+  }
+
+  @Test
+  @DisplayName("同じユーザー名の2回目以降はキャッシュから返し、ユーザーを再取得しない")
+  void findByUsername_cachesContext() {
+    when(appUserRepository.findWithDefaultGroupsByUsername("user")).thenReturn(Optional.of(user));
+
+    UserContext first = userContextService.findByUsername("user").orElseThrow();
+    UserContext second = userContextService.findByUsername("user").orElseThrow();
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.id()).isEqualTo(1L);
+    assertThat(first.roles()).containsExactly("ROLE_USER");
+    assertThat(first.groupIds()).containsExactlyInAnyOrder(10L, 11L);
+    assertThat(userContextService.findById(1L)).containsSame(first);
+    verify(appUserRepository, times(1)).findWithDefaultGroupsByUsername("user");
+  }
+
+  @Test
+  @DisplayName("invalidate後は最新のユーザー情報を読み直す")
+  void invalidate_reloadsUser() {
+    when(appUserRepository.findWithDefaultGroupsByUsername("user")).thenReturn(Optional.of(user));
+    userContextService.findByUsername("user");
+
+    userContextService.invalidate(1L);
+    userContextService.findByUsername("user");
+
+    verify(appUserRepository, times(2)).findWithDefaultGroupsByUsername("user");
+  }
+
+  @Test
+  @DisplayName("読み込み中にinvalidateされたユーザーはキャッシュしない")
+  void invalidateDuringLoad_doesNotCacheStaleContext() {
+    when(appUserRepository.findWithDefaultGroupsByUsername("user")).thenAnswer(invocation -> {
+      userContextService.invalidate(1L);
+      return Optional.of(user);
+    }).thenReturn(Optional.of(user));
+
+    userContextService.findByUsername("user");
+    userContextService.findByUsername("user");
+    userContextService.findByUsername("user");
+
+    verify(appUserRepository, times(2)).findWithDefaultGroupsByUsername("user");
+  }
+
+  @Test
+  @DisplayName("トランザクション中のinvalidateはコミット後にもう一度破棄する")
+  void invalidateInTransaction_evictsAgainAfterCommit() {
+    when(appUserRepository.findWithDefaultGroupsByUsername("user")).thenReturn(Optional.of(user));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      userContextService.invalidate(1L);
+      userContextService.findByUsername("user");
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      userContextService.findByUsername("user");
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(appUserRepository, times(2)).findWithDefaultGroupsByUsername("user");
+  }
+
+  @Test
+  @DisplayName("TTLを過ぎたコンテキストは読み直す")
+  void expiredContext_isReloaded() {
+    userContextService = new UserContextService(appUserRepository, Duration.ZERO);
+    when(appUserRepository.findWithDefaultGroupsByUsername("user")).thenReturn(Optional.of(user));
+
+    userContextService.findByUsername("user");
+    userContextService.findByUsername("user");
+
+    verify(appUserRepository, times(2)).findWithDefaultGroupsByUsername("user");
+  }
+}
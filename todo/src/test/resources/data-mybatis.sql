@@ -15,4 +15,7 @@ VALUES (2, 'Bob', 'Deleted task', 'soft deleted row', '2026-02-07', 'HIGH', 'COM
 INSERT INTO todos (id, author, title, description, due_date, priority, status, deleted_at,
   created_at, updated_at, version, user_id, category_id)
 VALUES (3, 'Carol', 'Other user task', 'different owner', '2026-02-08', 'LOW', 'PLANNED', NULL,
-  CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 2, 1);
\ No newline at end of file
+  CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 2, 1);
+
+INSERT INTO todo_visibility (user_id, todo_id)
+VALUES (1, 1), (1, 2), (2, 3);
@@ -1,3 +1,7 @@
+DROP TABLE IF EXISTS group_closure;
+DROP TABLE IF EXISTS groups;
+DROP TABLE IF EXISTS todo_visibility;
+DROP TABLE IF EXISTS user_groups;
 DROP TABLE IF EXISTS todo_groups;
 DROP TABLE IF EXISTS todos;
 DROP TABLE IF EXISTS categories;
@@ -29,3 +33,30 @@ CREATE TABLE todo_groups (
   group_id BIGINT NOT NULL,
   PRIMARY KEY (todo_id, group_id)
 );
+
+CREATE TABLE user_groups (
+  user_id BIGINT NOT NULL,
+  group_id BIGINT NOT NULL,
+  PRIMARY KEY (user_id, group_id)
+);
+
+CREATE TABLE todo_visibility (
+  user_id BIGINT NOT NULL,
+  todo_id BIGINT NOT NULL,
+  PRIMARY KEY (user_id, todo_id)
+);
+
+CREATE TABLE groups (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(100) NOT NULL,
+  type VARCHAR(20) NOT NULL,
+  parent_id BIGINT,
+  color VARCHAR(20) NOT NULL
+);
+
+CREATE TABLE group_closure (
+  ancestor_id BIGINT NOT NULL,
+  descendant_id BIGINT NOT NULL,
+  depth INT NOT NULL,
+  PRIMARY KEY (ancestor_id, descendant_id)
+);